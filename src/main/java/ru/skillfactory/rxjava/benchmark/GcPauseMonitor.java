@@ -0,0 +1,77 @@
+package ru.skillfactory.rxjava.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Собирает паузы сборщика мусора по уведомлениям JMX; фоновые (concurrent) циклы паузами не считаются
+final class GcPauseMonitor implements AutoCloseable {
+    private final long fromUptimeMillis;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final AtomicLong pauseCount = new AtomicLong();
+    private final AtomicLong totalPauseMillis = new AtomicLong();
+    private final AtomicLong maxPauseMillis = new AtomicLong();
+    private final NotificationListener listener = (notification, handback) -> onNotification(notification);
+
+    // Учитываются только паузы, начавшиеся не раньше fromUptimeMillis от старта JVM
+    GcPauseMonitor(long fromUptimeMillis) {
+        this.fromUptimeMillis = fromUptimeMillis;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (bean instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) bean;
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    private void onNotification(Notification notification) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        if (isConcurrent(info.getGcName()) || info.getGcInfo().getStartTime() < fromUptimeMillis) {
+            return;
+        }
+        long duration = info.getGcInfo().getDuration();
+        pauseCount.incrementAndGet();
+        totalPauseMillis.addAndGet(duration);
+        maxPauseMillis.accumulateAndGet(duration, Math::max);
+    }
+
+    long pauseCount() {
+        return pauseCount.get();
+    }
+
+    long totalPauseMillis() {
+        return totalPauseMillis.get();
+    }
+
+    long maxPauseMillis() {
+        return maxPauseMillis.get();
+    }
+
+    @Override
+    public void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (Exception ignored) {
+                // Слушатель уже снят
+            }
+        }
+    }
+
+    private static boolean isConcurrent(String gcName) {
+        return gcName.contains("Concurrent") || gcName.contains("Cycles");
+    }
+}
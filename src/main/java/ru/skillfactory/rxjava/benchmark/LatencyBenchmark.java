@@ -0,0 +1,200 @@
+package ru.skillfactory.rxjava.benchmark;
+
+import ru.skillfactory.rxjava.core.Observable;
+import ru.skillfactory.rxjava.core.Observer;
+import ru.skillfactory.rxjava.scheduler.ComputationScheduler;
+import ru.skillfactory.rxjava.scheduler.ElasticIOScheduler;
+import ru.skillfactory.rxjava.scheduler.IOThreadScheduler;
+import ru.skillfactory.rxjava.scheduler.Scheduler;
+import ru.skillfactory.rxjava.scheduler.SingleThreadScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Нагрузочный прогон: источник эмитирует с фиксированной частотой, задержка измеряется от запланированного
+// момента отправки, а не от фактического. Если источник отстал (пауза GC, занятый пул), накопившиеся элементы
+// уходят пачкой со своими исходными метками времени, и задержка ожидания попадает в гистограмму
+// (поправка на coordinated omission).
+//
+// Запуск: mvn exec:java -Dexec.mainClass=ru.skillfactory.rxjava.benchmark.LatencyBenchmark \
+//         -Dexec.args="--rate=20000 --duration=300 --warmup=30 --stages=4 --schedulers=io,computation"
+public final class LatencyBenchmark {
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final long rate;
+    private final long warmupSeconds;
+    private final long durationSeconds;
+    private final int stages;
+
+    private LatencyBenchmark(long rate, long warmupSeconds, long durationSeconds, int stages) {
+        this.rate = rate;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.stages = stages;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        long rate = Long.parseLong(options.getOrDefault("rate", "10000"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "60"));
+        int stages = Integer.parseInt(options.getOrDefault("stages", "4"));
+        List<String> schedulers = Arrays.asList(
+                options.getOrDefault("schedulers", "io,computation,single,elastic").split(","));
+        if (rate <= 0 || rate > TimeUnit.SECONDS.toNanos(1) || duration <= 0 || warmup < 0 || stages < 0) {
+            throw new IllegalArgumentException("Invalid benchmark options: " + options);
+        }
+
+        LatencyBenchmark benchmark = new LatencyBenchmark(rate, warmup, duration, stages);
+        System.out.printf("rate=%d/s warmup=%ds duration=%ds stages=%d cpus=%d jvm=%s%n",
+                rate, warmup, duration, stages, Runtime.getRuntime().availableProcessors(),
+                System.getProperty("java.vm.version"));
+        for (String name : schedulers) {
+            benchmark.run(name.trim(), schedulerFactory(name.trim()));
+        }
+        // Потоки планировщиков не демоны и не имеют shutdown
+        System.exit(0);
+    }
+
+    private void run(String name, Supplier<Scheduler> factory) throws InterruptedException {
+        Scheduler subscribeScheduler = factory.get();
+        Scheduler observeScheduler = factory.get();
+        LatencyHistogram histogram = new LatencyHistogram();
+        AtomicLong sent = new AtomicLong();
+        AtomicLong received = new AtomicLong();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long totalItems = rate * (warmupSeconds + durationSeconds);
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFromNanos = startNanos + TimeUnit.SECONDS.toNanos(warmupSeconds);
+
+        Observable<Long> pipeline = Observable.<Long>create(observer -> {
+            for (long i = 0; i < totalItems && !observer.isDisposed(); i++) {
+                long intended = startNanos + i * intervalNanos;
+                awaitUntil(intended);
+                sent.incrementAndGet();
+                observer.onNext(intended);
+            }
+            observer.onComplete();
+        }).subscribeOn(subscribeScheduler);
+        for (int i = 0; i < stages; i++) {
+            // Метка времени должна дойти до подписчика, поэтому стадии только имитируют работу
+            pipeline = pipeline.map(LatencyBenchmark::work);
+        }
+        pipeline = pipeline.observeOn(observeScheduler);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long measureFromUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime()
+                + TimeUnit.NANOSECONDS.toMillis(measureFromNanos - System.nanoTime());
+        try (GcPauseMonitor gcMonitor = new GcPauseMonitor(measureFromUptimeMillis)) {
+            pipeline.subscribe(new Observer<>() {
+                @Override
+                public void onNext(Long intended) {
+                    long now = System.nanoTime();
+                    received.incrementAndGet();
+                    if (intended >= measureFromNanos) {
+                        histogram.record(now - intended);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    error.set(t);
+                    done.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    done.countDown();
+                }
+            });
+            long timeoutSeconds = 2 * (warmupSeconds + durationSeconds) + 60;
+            boolean completed = done.await(timeoutSeconds, TimeUnit.SECONDS);
+            long elapsedNanos = System.nanoTime() - measureFromNanos;
+
+            System.out.printf("%n[%s]%s%n", name, completed ? "" : " TIMED OUT");
+            if (error.get() != null) {
+                System.out.println("  error: " + error.get());
+            }
+            System.out.printf("  sent=%d received=%d measured=%d throughput=%.0f items/s%n",
+                    sent.get(), received.get(), histogram.count(),
+                    histogram.count() / (elapsedNanos / 1e9));
+            System.out.printf("  latency us: p50=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                    micros(histogram.percentile(50)), micros(histogram.percentile(99)),
+                    micros(histogram.percentile(99.9)), micros(histogram.max()));
+            System.out.printf("  gc pauses: count=%d total=%dms max=%dms%n",
+                    gcMonitor.pauseCount(), gcMonitor.totalPauseMillis(), gcMonitor.maxPauseMillis());
+            // Счетчики по всей JVM: потоки планировщиков предыдущих прогонов тоже учитываются
+            System.out.printf("  threads: live=%d peak=%d%n", threads.getThreadCount(), threads.getPeakThreadCount());
+        }
+    }
+
+    private static long work(long value) {
+        // Небольшая работа, которую JIT не может выбросить: результат зависит от x
+        long x = value;
+        for (int i = 0; i < 16; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        // xorshift переводит ноль в ноль, а ненулевое значение - в ненулевое, поэтому результат всегда равен value,
+        // но доказать это JIT не может и обязан выполнить цикл
+        return x == 0 ? x : value;
+    }
+
+    private static void awaitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+
+    private static Supplier<Scheduler> schedulerFactory(String name) {
+        switch (name) {
+            case "io":
+                return IOThreadScheduler::new;
+            case "computation":
+                return ComputationScheduler::new;
+            case "single":
+                return SingleThreadScheduler::new;
+            case "elastic":
+                return () -> new ElasticIOScheduler(2, 64, 30, TimeUnit.SECONDS,
+                        ElasticIOScheduler.OverflowPolicy.CALLER_RUNS);
+            default:
+                throw new IllegalArgumentException("Unknown scheduler: " + name);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
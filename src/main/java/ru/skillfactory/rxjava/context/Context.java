@@ -0,0 +1,72 @@
+package ru.skillfactory.rxjava.context;
+
+import java.util.Arrays;
+
+// Небольшой неизменяемый набор ключ-значение, привязанный к текущему потоку.
+// Планировщики захватывают его в execute и восстанавливают в рабочем потоке
+public final class Context {
+    private static final Context EMPTY = new Context(new Object[0]);
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+
+    // Пары ключ-значение подряд; контексты маленькие, поэтому линейный поиск быстрее хеш-таблицы
+    private final Object[] entries;
+
+    private Context(Object[] entries) {
+        this.entries = entries;
+    }
+
+    public static Context empty() {
+        return EMPTY;
+    }
+
+    public static Context current() {
+        Context context = CURRENT.get();
+        return context == null ? EMPTY : context;
+    }
+
+    public Context with(String key, Object value) {
+        for (int i = 0; i < entries.length; i += 2) {
+            if (entries[i].equals(key)) {
+                Object[] copy = entries.clone();
+                copy[i + 1] = value;
+                return new Context(copy);
+            }
+        }
+        Object[] copy = Arrays.copyOf(entries, entries.length + 2);
+        copy[entries.length] = key;
+        copy[entries.length + 1] = value;
+        return new Context(copy);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V get(String key) {
+        for (int i = 0; i < entries.length; i += 2) {
+            if (entries[i].equals(key)) {
+                return (V) entries[i + 1];
+            }
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    // Делает контекст текущим до закрытия Scope, после чего возвращает предыдущий
+    public Scope attach() {
+        Context previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
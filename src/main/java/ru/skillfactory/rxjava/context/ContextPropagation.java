@@ -0,0 +1,69 @@
+package ru.skillfactory.rxjava.context;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Переносит Context и зарегистрированные ThreadLocal из потока, вызвавшего execute, в поток, выполняющий задачу.
+// Если переносить нечего, задача возвращается как есть, без обертки и аллокаций
+public final class ContextPropagation {
+    private static final AtomicReference<ThreadLocal<?>[]> THREAD_LOCALS =
+            new AtomicReference<>(new ThreadLocal<?>[0]);
+
+    private ContextPropagation() {
+    }
+
+    // Подключает существующий ThreadLocal (например, контекст запроса) к переносу между потоками
+    public static void registerThreadLocal(ThreadLocal<?> threadLocal) {
+        for (;;) {
+            ThreadLocal<?>[] current = THREAD_LOCALS.get();
+            if (Arrays.asList(current).contains(threadLocal)) {
+                return;
+            }
+            ThreadLocal<?>[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = threadLocal;
+            if (THREAD_LOCALS.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    // Нечего переносить из текущего потока: Context пуст и ThreadLocal не зарегистрированы
+    public static boolean isEmpty() {
+        return Context.current().isEmpty() && THREAD_LOCALS.get().length == 0;
+    }
+
+    public static Runnable wrap(Runnable task) {
+        Context context = Context.current();
+        ThreadLocal<?>[] threadLocals = THREAD_LOCALS.get();
+        if (context.isEmpty() && threadLocals.length == 0) {
+            return task;
+        }
+        Object[] values = new Object[threadLocals.length];
+        for (int i = 0; i < threadLocals.length; i++) {
+            values[i] = threadLocals[i].get();
+        }
+        return () -> {
+            Object[] previous = new Object[threadLocals.length];
+            for (int i = 0; i < threadLocals.length; i++) {
+                previous[i] = threadLocals[i].get();
+                set(threadLocals[i], values[i]);
+            }
+            try (Context.Scope ignored = context.attach()) {
+                task.run();
+            } finally {
+                for (int i = 0; i < threadLocals.length; i++) {
+                    set(threadLocals[i], previous[i]);
+                }
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void set(ThreadLocal<?> threadLocal, Object value) {
+        if (value == null) {
+            threadLocal.remove();
+        } else {
+            ((ThreadLocal<Object>) threadLocal).set(value);
+        }
+    }
+}
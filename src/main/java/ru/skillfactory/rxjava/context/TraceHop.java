@@ -0,0 +1,28 @@
+package ru.skillfactory.rxjava.context;
+
+public final class TraceHop {
+    private final TraceListener listener;
+    private final long traceId;
+    private final String stage;
+    private final Context context;
+    private final String fromThread;
+    private final long startNanos;
+
+    TraceHop(TraceListener listener, long traceId, String stage, Context context) {
+        this.listener = listener;
+        this.traceId = traceId;
+        this.stage = stage;
+        this.context = context;
+        this.fromThread = Thread.currentThread().getName();
+        this.startNanos = System.nanoTime();
+    }
+
+    // Контекст с идентификатором трассы: под ним элемент обрабатывается дальше, и следующие переходы попадают в ту же трассу
+    public Context context() {
+        return context;
+    }
+
+    public void delivered() {
+        listener.onHop(traceId, stage, fromThread, Thread.currentThread().getName(), startNanos, System.nanoTime());
+    }
+}
@@ -0,0 +1,7 @@
+package ru.skillfactory.rxjava.context;
+
+@FunctionalInterface
+public interface TraceListener {
+    // Элемент трассы traceId прошел переход stage: поставлен в очередь в startNanos и доставлен в endNanos
+    void onHop(long traceId, String stage, String fromThread, String toThread, long startNanos, long endNanos);
+}
@@ -0,0 +1,49 @@
+package ru.skillfactory.rxjava.context;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Выборочная трассировка элементов через переходы между потоками.
+// Выключенная трассировка стоит одно чтение volatile-поля на элемент
+public final class Tracing {
+    private static final String TRACE_ID_KEY = "rx.traceId";
+    private static final AtomicLong TRACE_IDS = new AtomicLong();
+
+    private static volatile TraceListener listener;
+    private static volatile int sampleEvery = 1;
+
+    private Tracing() {
+    }
+
+    // Трассируется в среднем один элемент из sampleEvery
+    public static void enable(int sampleEvery, TraceListener listener) {
+        if (sampleEvery <= 0) {
+            throw new IllegalArgumentException("sampleEvery must be positive");
+        }
+        Tracing.sampleEvery = sampleEvery;
+        Tracing.listener = listener;
+    }
+
+    public static void disable() {
+        listener = null;
+    }
+
+    // Элемент, уже идущий под трассой, трассируется всегда; новый - с заданной вероятностью. null - не трассировать
+    public static TraceHop beginHop(String stage) {
+        TraceListener current = listener;
+        if (current == null) {
+            return null;
+        }
+        Context context = Context.current();
+        Long traceId = context.get(TRACE_ID_KEY);
+        if (traceId == null) {
+            int every = sampleEvery;
+            if (every > 1 && ThreadLocalRandom.current().nextInt(every) != 0) {
+                return null;
+            }
+            traceId = TRACE_IDS.incrementAndGet();
+            context = context.with(TRACE_ID_KEY, traceId);
+        }
+        return new TraceHop(current, traceId, stage, context);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.skillfactory.rxjava.core;
+
+// Что делать с элементом Observable, на который подписчик Flow еще не запросил спрос
+public enum BackpressureStrategy {
+    // Держать в очереди до появления спроса; память не ограничена
+    BUFFER,
+    // Отбросить элемент
+    DROP,
+    // Хранить только последний ожидающий элемент
+    LATEST,
+    // Завершить поток ошибкой IllegalStateException
+    ERROR
+}
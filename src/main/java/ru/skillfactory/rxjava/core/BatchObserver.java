@@ -0,0 +1,21 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.List;
+
+// Подписчик, принимающий сразу пачку элементов. Операторы проверяют эту возможность при подписке
+// и передают пачки насквозь, если ее поддерживают обе стороны, иначе работают поэлементно.
+// Список действителен только на время вызова: источник может переиспользовать его буфер
+public interface BatchObserver<T> extends Observer<T> {
+    void onNextBatch(List<T> items);
+
+    // Источник отдает пачку одним вызовом, если подписчик умеет их принимать, иначе поэлементно
+    static <T> void emit(Observer<T> observer, List<T> items) {
+        if (observer instanceof BatchObserver) {
+            ((BatchObserver<T>) observer).onNextBatch(items);
+            return;
+        }
+        for (int i = 0, n = items.size(); i < n && !observer.isDisposed(); i++) {
+            observer.onNext(items.get(i));
+        }
+    }
+}
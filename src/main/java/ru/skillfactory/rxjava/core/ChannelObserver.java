@@ -0,0 +1,156 @@
+package ru.skillfactory.rxjava.core;
+
+import ru.skillfactory.rxjava.scheduler.SelectorScheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Пишет поток буферов в неблокирующий канал из цикла Selector. Накопившиеся буферы уходят одной
+// сборной записью (gathering write); при заполненном буфере сокета запись ждет OP_WRITE.
+// По завершении потока канал закрывается; записанные буферы возвращаются в pool, если он задан
+public final class ChannelObserver implements Observer<ByteBuffer>, Disposable {
+    // Сколько буферов собирать в одну запись
+    private static final int MAX_GATHER = 64;
+
+    private final SocketChannel channel;
+    private final BufferPool pool;
+    private final SelectorScheduler loop;
+    private final Queue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Состояние записи меняется только в потоке цикла
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private int gathered;
+    private boolean waitingForWrite;
+    private volatile boolean done;
+    private volatile boolean disposed;
+
+    public ChannelObserver(SocketChannel channel) {
+        this(channel, null);
+    }
+
+    public ChannelObserver(SocketChannel channel, BufferPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+        this.loop = SelectorScheduler.forChannel(channel);
+    }
+
+    @Override
+    public void onNext(ByteBuffer buffer) {
+        if (done || disposed) {
+            return;
+        }
+        pending.offer(buffer);
+        scheduleFlush();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        // Ответ оборван: недописанные данные не имеют смысла
+        dispose();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        scheduleFlush();
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        loop.execute(this::close);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    // Все onNext одного прохода цикла собираются в одну задачу записи
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        if (disposed) {
+            return;
+        }
+        boolean d = done;
+        try {
+            for (;;) {
+                ByteBuffer next;
+                while (gathered < MAX_GATHER && (next = pending.poll()) != null) {
+                    gather[gathered++] = next;
+                }
+                if (gathered == 0) {
+                    break;
+                }
+                channel.write(gather, 0, gathered);
+                int written = 0;
+                while (written < gathered && !gather[written].hasRemaining()) {
+                    recycle(gather[written++]);
+                }
+                System.arraycopy(gather, written, gather, 0, gathered - written);
+                gathered -= written;
+                for (int i = gathered; i < gathered + written; i++) {
+                    gather[i] = null;
+                }
+                if (gathered > 0) {
+                    // Буфер сокета заполнен - продолжим, когда канал станет доступен для записи
+                    if (!waitingForWrite) {
+                        waitingForWrite = true;
+                        loop.register(channel, SelectionKey.OP_WRITE, this::flush, e -> {
+                            disposed = true;
+                            close();
+                        });
+                    }
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            disposed = true;
+            close();
+            return;
+        }
+        if (waitingForWrite) {
+            waitingForWrite = false;
+            loop.unregister(channel, SelectionKey.OP_WRITE);
+        }
+        // done читается до опустошения очереди: после onComplete новых буферов уже не будет
+        if (d) {
+            disposed = true;
+            close();
+        }
+    }
+
+    private void recycle(ByteBuffer buffer) {
+        if (pool != null) {
+            pool.release(buffer);
+        }
+    }
+
+    private void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Закрытие по завершении или ошибке; сообщить об ошибке уже некому
+        }
+        ByteBuffer buffer;
+        while ((buffer = pending.poll()) != null) {
+            recycle(buffer);
+        }
+        for (int i = 0; i < gathered; i++) {
+            recycle(gather[i]);
+            gather[i] = null;
+        }
+        gathered = 0;
+    }
+}
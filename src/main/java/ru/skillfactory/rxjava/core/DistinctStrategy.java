@@ -0,0 +1,64 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+// Способ запоминать уже встреченные ключи для distinct; у каждой подписки свой набор ключей
+@FunctionalInterface
+public interface DistinctStrategy {
+    // Предикат возвращает true для ключа, который встретился впервые, и запоминает его
+    Predicate<Object> newTracker();
+
+    // Помнит не больше maxKeys последних ключей; давно не встречавшиеся вытесняются
+    static DistinctStrategy lru(int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+        return () -> {
+            Map<Object, Boolean> seen = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Boolean> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+            return key -> seen.put(key, Boolean.TRUE) == null;
+        };
+    }
+
+    // Ключ считается повтором в течение ttl с момента первого появления
+    static DistinctStrategy expiring(long ttl, TimeUnit unit) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        long ttlNanos = unit.toNanos(ttl);
+        return () -> {
+            LinkedHashMap<Object, Long> seen = new LinkedHashMap<>();
+            return key -> {
+                long now = System.nanoTime();
+                // Порядок вставки совпадает с порядком истечения, поэтому просроченные ключи всегда в начале
+                Iterator<Long> iterator = seen.values().iterator();
+                while (iterator.hasNext() && now - iterator.next() >= ttlNanos) {
+                    iterator.remove();
+                }
+                return seen.putIfAbsent(key, now) == null;
+            };
+        };
+    }
+
+    // Приближенный режим: фиксированная память, но с вероятностью falsePositiveRate новый ключ примется за повтор
+    static DistinctStrategy bloom(long expectedKeys, double falsePositiveRate) {
+        return bloom(expectedKeys, falsePositiveRate, RotatingBloomFilter::defaultHash);
+    }
+
+    // hash должен давать 64 бита на ключ: ключи с одинаковым хешем всегда неотличимы для фильтра
+    static DistinctStrategy bloom(long expectedKeys, double falsePositiveRate, ToLongFunction<Object> hash) {
+        if (expectedKeys <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid bloom filter parameters");
+        }
+        return () -> new RotatingBloomFilter(expectedKeys, falsePositiveRate, hash)::add;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.skillfactory.rxjava.core;
+
+import ru.skillfactory.rxjava.scheduler.Scheduler;
+
+// Ограничивает вложенность работы, выполняемой на месте вместо перехода на планировщик,
+// чтобы цепочка переходов на тот же пул не углубляла стек бесконечно
+final class InlineExecution {
+    private static final int MAX_DEPTH = 8;
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private InlineExecution() {
+    }
+
+    static boolean enter(Scheduler scheduler) {
+        if (!scheduler.isCurrentThread()) {
+            return false;
+        }
+        int[] depth = DEPTH.get();
+        if (depth[0] >= MAX_DEPTH) {
+            return false;
+        }
+        depth[0]++;
+        return true;
+    }
+
+    static void exit() {
+        DEPTH.get()[0]--;
+    }
+}
@@ -1,11 +1,32 @@
 package ru.skillfactory.rxjava.core;
 
 import ru.skillfactory.rxjava.scheduler.Scheduler;
+import ru.skillfactory.rxjava.scheduler.TaskPriority;
+import ru.skillfactory.rxjava.scheduler.TrampolineScheduler;
 
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class Observable<T> {
+    private static final ThreadLocal<Deque<Runnable>> PENDING_SUBSCRIPTIONS = new ThreadLocal<>();
+    private static final Object NO_KEY = new Object();
+
     private final OnSubscribe<T> onSubscribe;
 
     private Observable(OnSubscribe<T> onSubscribe) {
@@ -16,34 +37,126 @@ public class Observable<T> {
         return new Observable<>(onSubscribe);
     }
 
+    @SafeVarargs
+    public static <T> Observable<T> merge(Observable<T>... sources) {
+        return merge(Arrays.asList(sources));
+    }
+
+    public static <T> Observable<T> merge(List<Observable<T>> sources) {
+        return fromList(List.copyOf(sources)).flatMap(Function.identity());
+    }
+
+    @SafeVarargs
+    public static <T> Observable<T> concat(Observable<T>... sources) {
+        return fromList(List.of(sources)).concatMap(Function.identity());
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <A, B, R> Observable<R> zip(Observable<A> first, Observable<B> second,
+                                              BiFunction<A, B, R> zipper) {
+        return new Observable<>(new ObservableZip<>(List.of(first, second),
+                values -> zipper.apply((A) values[0], (B) values[1])));
+    }
+
+    public static <T, R> Observable<R> zip(List<Observable<T>> sources, Function<Object[], R> zipper) {
+        return new Observable<>(new ObservableZip<>(List.copyOf(sources), zipper));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <A, B, R> Observable<R> combineLatest(Observable<A> first, Observable<B> second,
+                                                        BiFunction<A, B, R> combiner) {
+        return new Observable<>(new ObservableCombineLatest<>(List.of(first, second),
+                values -> combiner.apply((A) values[0], (B) values[1])));
+    }
+
+    public static <T, R> Observable<R> combineLatest(List<Observable<T>> sources, Function<Object[], R> combiner) {
+        return new Observable<>(new ObservableCombineLatest<>(List.copyOf(sources), combiner));
+    }
+
+    // Массив уходит подписчику одной пачкой, если цепочка операторов поддерживает BatchObserver
+    @SafeVarargs
+    public static <T> Observable<T> fromArray(T... items) {
+        List<T> list = Arrays.asList(items);
+        return new Observable<>(observer -> {
+            BatchObserver.emit(observer, list);
+            observer.onComplete();
+        });
+    }
+
+    // Соединения, принятые на порту; accept и чтение идут в общих циклах Selector, а не в потоке на соединение
+    public static Observable<SocketChannel> fromServerSocket(int port) {
+        return new Observable<>(new ObservableServerSocket(new InetSocketAddress(port)));
+    }
+
+    public static Observable<ByteBuffer> fromChannel(SocketChannel channel) {
+        return fromChannel(channel, BufferPool.shared());
+    }
+
+    public static Observable<ByteBuffer> fromChannel(SocketChannel channel, BufferPool pool) {
+        return new Observable<>(new ObservableChannelRead(channel, pool));
+    }
+
+    // Спрос к издателю не превышает prefetch и пополняется пачками по мере обработки, без промежуточного буфера
+    public static <T> Observable<T> fromPublisher(Flow.Publisher<T> publisher, int prefetch) {
+        return new Observable<>(new ObservableFromPublisher<>(publisher, prefetch));
+    }
+
+    private static <T> Observable<T> fromList(List<T> items) {
+        return new Observable<>(observer -> {
+            for (T item : items) {
+                if (observer.isDisposed()) {
+                    return;
+                }
+                observer.onNext(item);
+            }
+            observer.onComplete();
+        });
+    }
+
+    // Подписка открывает свою область трамплина: синхронная цепочка, подписанная из onNext другой,
+    // отрабатывает до возврата, а не после внешнего цикла
     public void subscribe(Observer<T> observer) {
+        Deque<Runnable> outer = TrampolineScheduler.suspend();
         try {
-            onSubscribe.call(new Observer<T>() {
-                private volatile boolean done = false;
+            subscribeInline(observer);
+        } finally {
+            TrampolineScheduler.resume(outer);
+        }
+    }
 
-                @Override
-                public void onNext(T item) {
-                    if (!done && !observer.isDisposed()) {
-                        observer.onNext(item);
-                    }
-                }
+    // Подписка внутреннего источника из цикла трамплина: его задачи встают в тот же цикл, и стек не растет.
+    // Подписки операторов на источники, отложенные внутри этого вызова, выполняются здесь же в цикле
+    void subscribeInline(Observer<T> observer) {
+        Deque<Runnable> outer = PENDING_SUBSCRIPTIONS.get();
+        Deque<Runnable> pending = new ArrayDeque<>();
+        PENDING_SUBSCRIPTIONS.set(pending);
+        try {
+            subscribeActual(observer);
+            Runnable next;
+            while ((next = pending.poll()) != null) {
+                next.run();
+            }
+        } finally {
+            PENDING_SUBSCRIPTIONS.set(outer);
+        }
+    }
 
-                @Override
-                public void onError(Throwable t) {
-                    if (!done && !observer.isDisposed()) {
-                        done = true;
-                        observer.onError(t);
-                    }
-                }
+    // Оператор подписывается на источник последним действием, поэтому подписку можно отложить:
+    // цепочка из тысяч операторов подписывается циклом, без роста глубины стека
+    void subscribeDeferred(Observer<T> observer) {
+        Deque<Runnable> pending = PENDING_SUBSCRIPTIONS.get();
+        if (pending == null) {
+            subscribe(observer);
+        } else {
+            pending.offer(() -> subscribeActual(observer));
+        }
+    }
 
-                @Override
-                public void onComplete() {
-                    if (!done && !observer.isDisposed()) {
-                        done = true;
-                        observer.onComplete();
-                    }
-                }
-            });
+    private void subscribeActual(Observer<T> observer) {
+        try {
+            onSubscribe.call(observer instanceof BatchObserver
+                    ? new SafeBatchObserver<>((BatchObserver<T>) observer)
+                    : new SafeObserver<>(observer));
         } catch (Throwable t) {
             if (!observer.isDisposed()) {
                 observer.onError(t);
@@ -51,112 +164,180 @@ public class Observable<T> {
         }
     }
 
+    @SuppressWarnings("unchecked")
     public <R> Observable<R> map(Function<T, R> mapper) {
-        return new Observable<>(observer ->
-                subscribe(new Observer<T>() {
-                    @Override
-                    public void onNext(T item) {
-                        observer.onNext(mapper.apply(item));
-                    }
+        if (onSubscribe instanceof ObservableMapFilter) {
+            return new Observable<>(((ObservableMapFilter<?, T>) onSubscribe).withMap(mapper));
+        }
+        return new Observable<>(ObservableMapFilter.map(this, mapper));
+    }
 
-                    @Override
-                    public void onError(Throwable t) {
-                        observer.onError(t);
-                    }
+    @SuppressWarnings("unchecked")
+    public Observable<T> filter(Predicate<T> predicate) {
+        if (onSubscribe instanceof ObservableMapFilter) {
+            return new Observable<>(((ObservableMapFilter<?, T>) onSubscribe).withFilter(predicate));
+        }
+        return new Observable<>(ObservableMapFilter.filter(this, predicate));
+    }
 
-                    @Override
-                    public void onComplete() {
-                        observer.onComplete();
-                    }
-                }));
+    // Сливается с соседними map/filter, поэтому длинные цепочки distinct не углубляют стек
+    @SuppressWarnings("unchecked")
+    private Observable<T> statefulFilter(Supplier<Predicate<T>> factory) {
+        if (onSubscribe instanceof ObservableMapFilter) {
+            return new Observable<>(((ObservableMapFilter<?, T>) onSubscribe).withStatefulFilter(factory));
+        }
+        return new Observable<>(ObservableMapFilter.statefulFilter(this, factory));
     }
 
-    public Observable<T> filter(Predicate<T> predicate) {
-        return new Observable<>(observer ->
-                subscribe(new Observer<T>() {
-                    @Override
-                    public void onNext(T item) {
-                        if (predicate.test(item)) {
-                            observer.onNext(item);
-                        }
-                    }
+    public Observable<T> distinctUntilChanged() {
+        return distinctUntilChanged(Function.identity());
+    }
 
-                    @Override
-                    public void onError(Throwable t) {
-                        observer.onError(t);
-                    }
+    public <K> Observable<T> distinctUntilChanged(Function<T, K> keySelector) {
+        return statefulFilter(() -> {
+            // Состояние свое у каждой подписки
+            Object[] last = {NO_KEY};
+            return item -> {
+                K key = keySelector.apply(item);
+                boolean changed = last[0] == NO_KEY || !Objects.equals(last[0], key);
+                last[0] = key;
+                return changed;
+            };
+        });
+    }
 
-                    @Override
-                    public void onComplete() {
-                        observer.onComplete();
-                    }
-                }));
+    public <K> Observable<T> distinct(Function<T, K> keySelector, DistinctStrategy strategy) {
+        return statefulFilter(() -> {
+            Predicate<Object> tracker = strategy.newTracker();
+            return item -> tracker.test(keySelector.apply(item));
+        });
+    }
+
+    public <K> Observable<T> distinct(Function<T, K> keySelector, int maxKeys) {
+        return distinct(keySelector, DistinctStrategy.lru(maxKeys));
     }
 
     public <R> Observable<R> flatMap(Function<T, Observable<R>> mapper) {
+        return new Observable<>(new ObservableFlatMap<>(this, mapper));
+    }
+
+    public <R> Observable<R> concatMap(Function<T, Observable<R>> mapper) {
+        return new Observable<>(new ObservableConcatMap<>(this, mapper));
+    }
+
+    public Observable<T> subscribeOn(Scheduler scheduler) {
+        return new Observable<>(observer -> {
+            // Уже в потоке этого планировщика: переход через его очередь ничего не дает
+            if (scheduler.isCurrentThread()) {
+                subscribeDeferred(observer);
+            } else {
+                scheduler.execute(() -> subscribe(observer));
+            }
+        });
+    }
+
+    public Observable<T> subscribeOn(Scheduler scheduler, long deadline, TimeUnit unit) {
+        return subscribeOn(scheduler.withDeadline(deadline, unit));
+    }
+
+    public Observable<T> subscribeOn(Scheduler scheduler, TaskPriority priority) {
+        return subscribeOn(scheduler.withPriority(priority));
+    }
+
+    public Observable<T> observeOn(Scheduler scheduler) {
+        return new Observable<>(new ObservableObserveOn<>(this, scheduler, null));
+    }
+
+    // Когда потребитель отстает больше чем на memoryCapacity элементов, излишек уходит на диск, а не в кучу
+    public Observable<T> observeOn(Scheduler scheduler, SpillOptions<T> spill) {
+        return new Observable<>(new ObservableObserveOn<>(this, scheduler, spill));
+    }
+
+    public Observable<T> observeOn(Scheduler scheduler, long deadline, TimeUnit unit) {
+        return observeOn(scheduler.withDeadline(deadline, unit));
+    }
+
+    public Observable<T> observeOn(Scheduler scheduler, TaskPriority priority) {
+        return observeOn(scheduler.withPriority(priority));
+    }
+
+    public Observable<T> rateLimit(double permitsPerSecond, int burst, Scheduler scheduler) {
+        return rateLimit(permitsPerSecond, burst, scheduler, RateLimitOverflow.BUFFER);
+    }
+
+    public Observable<T> rateLimit(double permitsPerSecond, int burst, Scheduler scheduler,
+                                   RateLimitOverflow overflow) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        return new Observable<>(new ObservableRateLimit<>(this, permitsPerSecond, burst, scheduler, overflow));
+    }
+
+    public Observable<T> retry(int times) {
+        if (times < 0) {
+            throw new IllegalArgumentException("times must be non-negative");
+        }
         return new Observable<>(observer ->
-                subscribe(new Observer<T>() {
-                    @Override
-                    public void onNext(T item) {
-                        try {
-                            mapper.apply(item).subscribe(new Observer<R>() {
-                                @Override
-                                public void onNext(R mappedItem) {
-                                    observer.onNext(mappedItem);
-                                }
-
-                                @Override
-                                public void onError(Throwable t) {
-                                    observer.onError(t);
-                                }
-
-                                @Override
-                                public void onComplete() {
-                                    // Do nothing, wait for outer observable to complete
-                                }
-                            });
-                        } catch (Exception e) {
-                            observer.onError(e);
-                        }
-                    }
+                new RetryObserver<>(this, observer, (attempt, error) -> attempt <= times ? 0 : -1, null)
+                        .subscribeNext());
+    }
 
-                    @Override
-                    public void onError(Throwable t) {
-                        observer.onError(t);
-                    }
+    public Observable<T> retryWhen(RetryPolicy policy, Scheduler scheduler) {
+        // Без планировщика задержка политики молча превратилась бы в немедленный повтор
+        Objects.requireNonNull(scheduler, "scheduler");
+        return new Observable<>(observer ->
+                new RetryObserver<>(this, observer, policy, scheduler).subscribeNext());
+    }
 
-                    @Override
-                    public void onComplete() {
-                        observer.onComplete();
-                    }
-                }));
+    public Observable<T> timeout(long timeout, TimeUnit unit, Scheduler scheduler) {
+        return timeout(timeout, unit, scheduler, null);
     }
 
-    public Observable<T> subscribeOn(Scheduler scheduler) {
+    public Observable<T> timeout(long timeout, TimeUnit unit, Scheduler scheduler, Observable<T> fallback) {
         return new Observable<>(observer ->
-                scheduler.execute(() -> subscribe(observer)));
+                new TimeoutObserver<>(observer, timeout, unit, scheduler, fallback).subscribeTo(this));
     }
 
-    public Observable<T> observeOn(Scheduler scheduler) {
+    public Observable<T> onErrorResumeNext(Function<Throwable, Observable<T>> resumeFunction) {
         return new Observable<>(observer ->
-                subscribe(new Observer<T>() {
+                subscribeDeferred(new Observer<T>() {
                     @Override
                     public void onNext(T item) {
-                        scheduler.execute(() -> observer.onNext(item));
+                        observer.onNext(item);
                     }
 
                     @Override
                     public void onError(Throwable t) {
-                        scheduler.execute(() -> observer.onError(t));
+                        Observable<T> resume;
+                        try {
+                            resume = resumeFunction.apply(t);
+                        } catch (Throwable e) {
+                            observer.onError(e);
+                            return;
+                        }
+                        resume.subscribe(observer);
                     }
 
                     @Override
                     public void onComplete() {
-                        scheduler.execute(observer::onComplete);
+                        observer.onComplete();
+                    }
+
+                    @Override
+                    public boolean isDisposed() {
+                        return observer.isDisposed();
                     }
                 }));
     }
 
+    public Observable<T> onErrorResumeNext(Observable<T> fallback) {
+        return onErrorResumeNext(t -> fallback);
+    }
+
+    public Flow.Publisher<T> toPublisher(BackpressureStrategy strategy) {
+        return new ObservablePublisher<>(this, strategy);
+    }
+
     public Disposable subscribeWith(DisposableObserver<T> observer) {
         subscribe(observer);
         return observer;
@@ -165,4 +346,201 @@ public class Observable<T> {
     public interface OnSubscribe<T> {
         void call(Observer<T> observer);
     }
+
+    // Отсекает сигналы после терминального события и после отписки
+    private static class SafeObserver<T> implements Observer<T> {
+        protected final Observer<T> downstream;
+        protected volatile boolean done = false;
+
+        SafeObserver(Observer<T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (!done && !downstream.isDisposed()) {
+                downstream.onNext(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done && !downstream.isDisposed()) {
+                done = true;
+                downstream.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done && !downstream.isDisposed()) {
+                done = true;
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return downstream.isDisposed();
+        }
+    }
+
+    private static final class SafeBatchObserver<T> extends SafeObserver<T> implements BatchObserver<T> {
+        SafeBatchObserver(BatchObserver<T> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNextBatch(List<T> items) {
+            if (!done && !downstream.isDisposed()) {
+                ((BatchObserver<T>) downstream).onNextBatch(items);
+            }
+        }
+    }
+
+    private static final class RetryObserver<T> implements Observer<T> {
+        private final Observable<T> source;
+        private final Observer<T> downstream;
+        private final RetryPolicy policy;
+        private final Scheduler scheduler;
+        private final AtomicInteger wip = new AtomicInteger();
+        private int attempt;
+
+        RetryObserver(Observable<T> source, Observer<T> downstream, RetryPolicy policy, Scheduler scheduler) {
+            this.source = source;
+            this.downstream = downstream;
+            this.policy = policy;
+            this.scheduler = scheduler;
+        }
+
+        // Синхронная ошибка при повторной подписке не углубляет стек, а крутит цикл
+        void subscribeNext() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                if (downstream.isDisposed()) {
+                    return;
+                }
+                source.subscribe(this);
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        @Override
+        public void onNext(T item) {
+            downstream.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            long delay;
+            try {
+                delay = policy.delayMillis(++attempt, t);
+            } catch (Throwable e) {
+                downstream.onError(e);
+                return;
+            }
+            if (delay < 0) {
+                downstream.onError(t);
+            } else if (delay == 0) {
+                subscribeNext();
+            } else {
+                scheduler.schedule(this::subscribeNext, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return downstream.isDisposed();
+        }
+    }
+
+    private static final class TimeoutObserver<T> implements Observer<T> {
+        private static final long TERMINATED = Long.MAX_VALUE;
+
+        private final Observer<T> downstream;
+        private final long timeout;
+        private final TimeUnit unit;
+        private final Scheduler scheduler;
+        private final Observable<T> fallback;
+        private final AtomicLong index = new AtomicLong();
+        private final AtomicReference<Disposable> timer = new AtomicReference<>();
+
+        TimeoutObserver(Observer<T> downstream, long timeout, TimeUnit unit,
+                        Scheduler scheduler, Observable<T> fallback) {
+            this.downstream = downstream;
+            this.timeout = timeout;
+            this.unit = unit;
+            this.scheduler = scheduler;
+            this.fallback = fallback;
+        }
+
+        void subscribeTo(Observable<T> source) {
+            scheduleTimeout(0);
+            source.subscribe(this);
+        }
+
+        private void scheduleTimeout(long idx) {
+            Disposable previous = timer.getAndSet(scheduler.schedule(() -> onTimeout(idx), timeout, unit));
+            if (previous != null) {
+                previous.dispose();
+            }
+        }
+
+        private void cancelTimer() {
+            Disposable current = timer.get();
+            if (current != null) {
+                current.dispose();
+            }
+        }
+
+        private void onTimeout(long idx) {
+            if (!index.compareAndSet(idx, TERMINATED)) {
+                return;
+            }
+            if (fallback == null) {
+                downstream.onError(new TimeoutException("No item within " + timeout + " " + unit));
+            } else {
+                fallback.subscribe(downstream);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            long idx = index.get();
+            if (idx == TERMINATED || !index.compareAndSet(idx, idx + 1)) {
+                return;
+            }
+            cancelTimer();
+            downstream.onNext(item);
+            scheduleTimeout(idx + 1);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (index.getAndSet(TERMINATED) != TERMINATED) {
+                cancelTimer();
+                downstream.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (index.getAndSet(TERMINATED) != TERMINATED) {
+                cancelTimer();
+                downstream.onComplete();
+            }
+        }
+
+        // После таймаута источник должен остановиться, особенно если вместо него уже работает fallback
+        @Override
+        public boolean isDisposed() {
+            return index.get() == TERMINATED || downstream.isDisposed();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package ru.skillfactory.rxjava.core;
+
+import ru.skillfactory.rxjava.scheduler.SelectorScheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+// Читает канал в цикле Selector. Каждый прочитанный буфер передается подписчику во владение:
+// его можно вернуть в пул (например, через ChannelObserver) или просто отпустить
+final class ObservableChannelRead implements Observable.OnSubscribe<ByteBuffer> {
+    // Сколько буферов прочитать за одно событие, чтобы один быстрый канал не задерживал остальные
+    private static final int READS_PER_EVENT = 16;
+
+    private final SocketChannel channel;
+    private final BufferPool pool;
+
+    ObservableChannelRead(SocketChannel channel, BufferPool pool) {
+        this.channel = channel;
+        this.pool = pool;
+    }
+
+    @Override
+    public void call(Observer<ByteBuffer> observer) {
+        try {
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            observer.onError(e);
+            return;
+        }
+        SelectorScheduler loop = SelectorScheduler.forChannel(channel);
+        loop.register(channel, SelectionKey.OP_READ, () -> read(loop, observer), e -> fail(loop, observer, e));
+    }
+
+    private void read(SelectorScheduler loop, Observer<ByteBuffer> observer) {
+        for (int i = 0; i < READS_PER_EVENT; i++) {
+            if (observer.isDisposed()) {
+                loop.unregister(channel, SelectionKey.OP_READ);
+                return;
+            }
+            ByteBuffer buffer = pool.acquire();
+            int read;
+            try {
+                read = channel.read(buffer);
+            } catch (IOException e) {
+                pool.release(buffer);
+                fail(loop, observer, e);
+                return;
+            }
+            if (read <= 0) {
+                pool.release(buffer);
+                if (read < 0) {
+                    // Собеседник закрыл запись; сам канал остается открытым для ответа
+                    loop.unregister(channel, SelectionKey.OP_READ);
+                    observer.onComplete();
+                }
+                return;
+            }
+            buffer.flip();
+            boolean drained = buffer.limit() < buffer.capacity();
+            try {
+                observer.onNext(buffer);
+            } catch (Throwable e) {
+                // Подписчик сломан: канал закрывается, буфер возвращается в пул, ошибка уходит ему же
+                pool.release(buffer);
+                fail(loop, observer, e);
+                return;
+            }
+            if (drained) {
+                // Буфер заполнился не целиком - данных в сокете больше нет
+                return;
+            }
+        }
+    }
+
+    private void fail(SelectorScheduler loop, Observer<ByteBuffer> observer, Throwable e) {
+        loop.unregister(channel, SelectionKey.OP_READ);
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Канал уже непригоден, ошибка закрытия ничего не добавляет
+        }
+        observer.onError(e);
+    }
+}
@@ -0,0 +1,167 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+final class ObservableCombineLatest<R> implements Observable.OnSubscribe<R> {
+    private final List<? extends Observable<?>> sources;
+    private final Function<Object[], R> combiner;
+
+    ObservableCombineLatest(List<? extends Observable<?>> sources, Function<Object[], R> combiner) {
+        this.sources = sources;
+        this.combiner = combiner;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void call(Observer<R> observer) {
+        LatestCoordinator<R> coordinator = new LatestCoordinator<>(observer, combiner, sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            if (coordinator.isDisposed()) {
+                return;
+            }
+            ((Observable<Object>) sources.get(i)).subscribe(coordinator.new LatestInner(i));
+        }
+        coordinator.drain();
+    }
+
+    // Обновления от всех источников идут через общую очередь; массив последних значений трогает только поток, выполняющий drain
+    private static final class LatestCoordinator<R> {
+        private final Observer<R> downstream;
+        private final Function<Object[], R> combiner;
+        private final Object[] latest;
+        private final boolean[] hasValue;
+        private final Queue<Update> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile boolean emptySourceCompleted;
+        // После терминального сигнала источники должны остановиться, а их обновления - не копиться в очереди
+        private volatile boolean terminated;
+        private int present;
+
+        LatestCoordinator(Observer<R> downstream, Function<Object[], R> combiner, int sourceCount) {
+            this.downstream = downstream;
+            this.combiner = combiner;
+            this.latest = new Object[sourceCount];
+            this.hasValue = new boolean[sourceCount];
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (downstream.isDisposed()) {
+                    terminate();
+                    return;
+                }
+                Throwable t = error.get();
+                if (t != null) {
+                    terminate();
+                    downstream.onError(t);
+                    return;
+                }
+                boolean done = completed.get() == latest.length || emptySourceCompleted;
+                Update update = queue.poll();
+                if (update == null) {
+                    if (done) {
+                        terminate();
+                        downstream.onComplete();
+                        return;
+                    }
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                if (!hasValue[update.index]) {
+                    hasValue[update.index] = true;
+                    present++;
+                }
+                latest[update.index] = update.value;
+                if (present == latest.length) {
+                    R result;
+                    try {
+                        result = combiner.apply(latest.clone());
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                        continue;
+                    }
+                    downstream.onNext(result);
+                }
+            }
+        }
+
+        boolean isDisposed() {
+            return terminated || error.get() != null || downstream.isDisposed();
+        }
+
+        private void terminate() {
+            terminated = true;
+            queue.clear();
+        }
+
+        private static final class Update {
+            private final int index;
+            private final Object value;
+
+            Update(int index, Object value) {
+                this.index = index;
+                this.value = value;
+            }
+        }
+
+        private final class LatestInner implements Observer<Object> {
+            private final int index;
+            private boolean emitted;
+
+            LatestInner(int index) {
+                this.index = index;
+            }
+
+            @Override
+            public void onNext(Object item) {
+                if (terminated) {
+                    return;
+                }
+                emitted = true;
+                queue.offer(new Update(index, item));
+                if (terminated) {
+                    // Завершение успело очистить очередь раньше этой вставки
+                    queue.clear();
+                    return;
+                }
+                drain();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (error.compareAndSet(null, t)) {
+                    drain();
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                // Источник без единого элемента не даст ни одной комбинации
+                if (!emitted) {
+                    emptySourceCompleted = true;
+                }
+                completed.incrementAndGet();
+                drain();
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return LatestCoordinator.this.isDisposed();
+            }
+        }
+    }
+}
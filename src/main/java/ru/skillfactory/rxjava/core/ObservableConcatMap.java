@@ -0,0 +1,136 @@
+package ru.skillfactory.rxjava.core;
+
+import ru.skillfactory.rxjava.scheduler.Scheduler;
+import ru.skillfactory.rxjava.scheduler.TrampolineScheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+final class ObservableConcatMap<T, R> implements Observable.OnSubscribe<R> {
+    private static final Scheduler TRAMPOLINE = new TrampolineScheduler();
+
+    private final Observable<T> source;
+    private final Function<T, Observable<R>> mapper;
+
+    ObservableConcatMap(Observable<T> source, Function<T, Observable<R>> mapper) {
+        this.source = source;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void call(Observer<R> observer) {
+        source.subscribeDeferred(new ConcatMapObserver<>(observer, mapper));
+    }
+
+    // Внешние элементы копятся в очереди, внутренний Observable подписывается только после завершения предыдущего
+    private static final class ConcatMapObserver<T, R> implements Observer<T> {
+        private final Observer<R> downstream;
+        private final Function<T, Observable<R>> mapper;
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final Observer<R> inner = new InnerObserver();
+        private volatile boolean done;
+        private volatile boolean active;
+
+        ConcatMapObserver(Observer<R> downstream, Function<T, Observable<R>> mapper) {
+            this.downstream = downstream;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void onNext(T item) {
+            queue.offer(item);
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (error.compareAndSet(null, t)) {
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return downstream.isDisposed();
+        }
+
+        // Синхронно завершающиеся внутренние источники обрабатываются в цикле, а не рекурсией
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (downstream.isDisposed()) {
+                    queue.clear();
+                    return;
+                }
+                Throwable t = error.get();
+                if (t != null) {
+                    queue.clear();
+                    downstream.onError(t);
+                    return;
+                }
+                if (!active) {
+                    boolean d = done;
+                    T item = queue.poll();
+                    if (item == null) {
+                        if (d) {
+                            downstream.onComplete();
+                            return;
+                        }
+                    } else {
+                        Observable<R> next;
+                        try {
+                            next = mapper.apply(item);
+                        } catch (Throwable e) {
+                            error.compareAndSet(null, e);
+                            continue;
+                        }
+                        active = true;
+                        TRAMPOLINE.execute(() -> next.subscribeInline(inner));
+                        continue;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private final class InnerObserver implements Observer<R> {
+            @Override
+            public void onNext(R item) {
+                downstream.onNext(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                ConcatMapObserver.this.onError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                active = false;
+                drain();
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return downstream.isDisposed();
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package ru.skillfactory.rxjava.core;
+
+import ru.skillfactory.rxjava.scheduler.Scheduler;
+import ru.skillfactory.rxjava.scheduler.TrampolineScheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+final class ObservableFlatMap<T, R> implements Observable.OnSubscribe<R> {
+    // Рекурсивно порождаемые внутренние источники подписываются через трамплин, а не вложенными вызовами
+    private static final Scheduler TRAMPOLINE = new TrampolineScheduler();
+
+    private final Observable<T> source;
+    private final Function<T, Observable<R>> mapper;
+
+    ObservableFlatMap(Observable<T> source, Function<T, Observable<R>> mapper) {
+        this.source = source;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void call(Observer<R> observer) {
+        source.subscribeDeferred(new FlatMapObserver<>(observer, mapper));
+    }
+
+    // Внутренние источники могут эмитировать из разных потоков; вниз элементы уходят строго по одному
+    private static final class FlatMapObserver<T, R> implements Observer<T> {
+        // Заменяет null в очереди: внутренние источники могут эмитировать null, как и в observeOn
+        private static final Object NULL = new Object();
+
+        private final Observer<R> downstream;
+        private final Function<T, Observable<R>> mapper;
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        // Внешний источник плюс активные внутренние
+        private final AtomicInteger active = new AtomicInteger(1);
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final Observer<R> inner = new InnerObserver();
+        private final Runnable drainTask = this::drainLoop;
+        // Отписка снизу, замеченная циклом drain. isDisposed не опрашивает downstream сам: в цепочке
+        // из вложенных flatMap такой опрос проходил бы рекурсивно через все уровни
+        private volatile boolean cancelled;
+
+        FlatMapObserver(Observer<R> downstream, Function<T, Observable<R>> mapper) {
+            this.downstream = downstream;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void onNext(T item) {
+            Observable<R> next;
+            try {
+                next = mapper.apply(item);
+            } catch (Throwable e) {
+                onError(e);
+                return;
+            }
+            active.incrementAndGet();
+            TRAMPOLINE.execute(() -> next.subscribeInline(inner));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (error.compareAndSet(null, t)) {
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            active.decrementAndGet();
+            drain();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return cancelled || error.get() != null;
+        }
+
+        private void emit(R item) {
+            if (TRAMPOLINE.isCurrentThread()) {
+                // Внутри трамплина доставка откладывается до возврата в его цикл: иначе каждый уровень
+                // рекурсивного flatMap добавлял бы к стеку свои вызовы onNext
+                queue.offer(item == null ? NULL : item);
+                drain();
+                return;
+            }
+            if (wip.get() == 0 && wip.compareAndSet(0, 1)) {
+                // Быстрый путь без очереди, если никто не эмитирует
+                if (queue.isEmpty()) {
+                    downstream.onNext(item);
+                    if (wip.decrementAndGet() == 0) {
+                        return;
+                    }
+                } else {
+                    queue.offer(item == null ? NULL : item);
+                }
+            } else {
+                queue.offer(item == null ? NULL : item);
+                if (wip.getAndIncrement() != 0) {
+                    return;
+                }
+            }
+            drainLoop();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() == 0) {
+                // Завершение тоже идет через трамплин: onComplete вложенных flatMap не должен накапливаться в стеке
+                TRAMPOLINE.execute(drainTask);
+            }
+        }
+
+        // После терминального сигнала wip не сбрасывается, и последующие вызовы drain ничего не делают
+        @SuppressWarnings("unchecked")
+        private void drainLoop() {
+            int missed = 1;
+            for (;;) {
+                if (downstream.isDisposed()) {
+                    cancelled = true;
+                    queue.clear();
+                    return;
+                }
+                Throwable t = error.get();
+                if (t != null) {
+                    queue.clear();
+                    downstream.onError(t);
+                    return;
+                }
+                boolean done = active.get() == 0;
+                Object item = queue.poll();
+                if (item == null) {
+                    if (done) {
+                        downstream.onComplete();
+                        return;
+                    }
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                downstream.onNext(item == NULL ? null : (R) item);
+            }
+        }
+
+        private final class InnerObserver implements Observer<R> {
+            @Override
+            public void onNext(R item) {
+                emit(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                FlatMapObserver.this.onError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                FlatMapObserver.this.onComplete();
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return FlatMapObserver.this.isDisposed();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.concurrent.Flow;
+
+// Подписка на Flow.Publisher со спросом не больше prefetch. Элементы передаются дальше в потоке издателя,
+// а спрос пополняется пачкой, когда подписчик обработал три четверти запрошенного
+final class ObservableFromPublisher<T> implements Observable.OnSubscribe<T> {
+    private final Flow.Publisher<T> publisher;
+    private final int prefetch;
+
+    ObservableFromPublisher(Flow.Publisher<T> publisher, int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be positive");
+        }
+        this.publisher = publisher;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void call(Observer<T> observer) {
+        publisher.subscribe(new PublisherSubscriber<>(observer, prefetch));
+    }
+
+    // Сигналы Flow приходят последовательно (правило 1.3), поэтому счетчики не нуждаются в атомарности
+    private static final class PublisherSubscriber<T> implements Flow.Subscriber<T> {
+        private final Observer<T> downstream;
+        private final int prefetch;
+        private final int limit;
+        private Flow.Subscription subscription;
+        private int consumed;
+        private boolean done;
+
+        PublisherSubscriber(Observer<T> downstream, int prefetch) {
+            this.downstream = downstream;
+            this.prefetch = prefetch;
+            this.limit = prefetch == Integer.MAX_VALUE ? Integer.MAX_VALUE : prefetch - (prefetch >> 2);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            if (subscription != null || downstream.isDisposed()) {
+                // Повторная подписка запрещена правилом 2.5
+                s.cancel();
+                return;
+            }
+            subscription = s;
+            s.request(prefetch == Integer.MAX_VALUE ? Long.MAX_VALUE : prefetch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            if (downstream.isDisposed()) {
+                done = true;
+                subscription.cancel();
+                return;
+            }
+            downstream.onNext(item);
+            if (limit != Integer.MAX_VALUE && ++consumed == limit) {
+                consumed = 0;
+                subscription.request(limit);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                done = true;
+                downstream.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                done = true;
+                downstream.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Подряд идущие map и filter сливаются в один узел: элемент проходит все стадии в цикле, а не через цепочку вложенных Observer
+final class ObservableMapFilter<T, R> implements Observable.OnSubscribe<R> {
+    private final Observable<T> source;
+    private final Stage last;
+    private volatile Stage[] stages;
+
+    private ObservableMapFilter(Observable<T> source, Stage last) {
+        this.source = source;
+        this.last = last;
+    }
+
+    static <T, R> ObservableMapFilter<T, R> map(Observable<T> source, Function<T, R> mapper) {
+        return new ObservableMapFilter<>(source, new Stage(null, mapper, false));
+    }
+
+    static <T> ObservableMapFilter<T, T> filter(Observable<T> source, Predicate<T> predicate) {
+        return new ObservableMapFilter<>(source, new Stage(null, predicate, true));
+    }
+
+    // Фильтр с состоянием: factory создает свой предикат для каждой подписки
+    static <T> ObservableMapFilter<T, T> statefulFilter(Observable<T> source, Supplier<Predicate<T>> factory) {
+        return new ObservableMapFilter<>(source, new Stage(null, factory, true, true));
+    }
+
+    <V> ObservableMapFilter<T, V> withMap(Function<R, V> mapper) {
+        return new ObservableMapFilter<>(source, new Stage(last, mapper, false));
+    }
+
+    ObservableMapFilter<T, R> withFilter(Predicate<R> predicate) {
+        return new ObservableMapFilter<>(source, new Stage(last, predicate, true));
+    }
+
+    ObservableMapFilter<T, R> withStatefulFilter(Supplier<Predicate<R>> factory) {
+        return new ObservableMapFilter<>(source, new Stage(last, factory, true, true));
+    }
+
+    @Override
+    public void call(Observer<R> observer) {
+        Stage[] subscriptionStages = last.anyStateful ? instantiate(stages()) : stages();
+        source.subscribeDeferred(observer instanceof BatchObserver
+                ? new BatchMapFilterObserver<>((BatchObserver<R>) observer, subscriptionStages)
+                : new MapFilterObserver<>(observer, subscriptionStages));
+    }
+
+    private static Stage[] instantiate(Stage[] stages) {
+        Stage[] result = stages.clone();
+        for (int i = 0; i < result.length; i++) {
+            if (result[i].stateful) {
+                Object predicate = ((Supplier<?>) result[i].operation).get();
+                result[i] = new Stage(null, predicate, true);
+            }
+        }
+        return result;
+    }
+
+    private Stage[] stages() {
+        Stage[] result = stages;
+        if (result == null) {
+            result = new Stage[last.depth];
+            for (Stage stage = last; stage != null; stage = stage.previous) {
+                result[stage.depth - 1] = stage;
+            }
+            stages = result;
+        }
+        return result;
+    }
+
+    private static final class Stage {
+        private final Stage previous;
+        private final Object operation;
+        private final boolean filter;
+        private final boolean stateful;
+        private final boolean anyStateful;
+        private final int depth;
+
+        Stage(Stage previous, Object operation, boolean filter) {
+            this(previous, operation, filter, false);
+        }
+
+        Stage(Stage previous, Object operation, boolean filter, boolean stateful) {
+            this.previous = previous;
+            this.operation = operation;
+            this.filter = filter;
+            this.stateful = stateful;
+            this.anyStateful = stateful || previous != null && previous.anyStateful;
+            this.depth = previous == null ? 1 : previous.depth + 1;
+        }
+    }
+
+    private static class MapFilterObserver<T, R> implements Observer<T> {
+        protected final Observer<R> downstream;
+        protected final Stage[] stages;
+
+        MapFilterObserver(Observer<R> downstream, Stage[] stages) {
+            this.downstream = downstream;
+            this.stages = stages;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(T item) {
+            Object value = item;
+            for (Stage stage : stages) {
+                if (stage.filter) {
+                    if (!((Predicate<Object>) stage.operation).test(value)) {
+                        return;
+                    }
+                } else {
+                    value = ((Function<Object, Object>) stage.operation).apply(value);
+                }
+            }
+            downstream.onNext((R) value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return downstream.isDisposed();
+        }
+    }
+
+    // Пачка проходит стадии по очереди: каждая стадия - плотный цикл по массиву без вызовов через цепочку Observer
+    private static final class BatchMapFilterObserver<T, R> extends MapFilterObserver<T, R>
+            implements BatchObserver<T> {
+        BatchMapFilterObserver(BatchObserver<R> downstream, Stage[] stages) {
+            super(downstream, stages);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNextBatch(List<T> items) {
+            Object[] values = items.toArray();
+            int count = values.length;
+            for (Stage stage : stages) {
+                if (count == 0) {
+                    return;
+                }
+                if (stage.filter) {
+                    Predicate<Object> predicate = (Predicate<Object>) stage.operation;
+                    int kept = 0;
+                    for (int i = 0; i < count; i++) {
+                        Object value = values[i];
+                        if (predicate.test(value)) {
+                            values[kept++] = value;
+                        }
+                    }
+                    count = kept;
+                } else {
+                    Function<Object, Object> mapper = (Function<Object, Object>) stage.operation;
+                    for (int i = 0; i < count; i++) {
+                        values[i] = mapper.apply(values[i]);
+                    }
+                }
+            }
+            if (count > 0) {
+                List<Object> result = Arrays.asList(values);
+                ((BatchObserver<R>) downstream).onNextBatch((List<R>) (count == values.length
+                        ? result : result.subList(0, count)));
+            }
+        }
+    }
+}
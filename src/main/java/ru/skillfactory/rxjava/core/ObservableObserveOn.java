@@ -0,0 +1,285 @@
+package ru.skillfactory.rxjava.core;
+
+import ru.skillfactory.rxjava.context.Context;
+import ru.skillfactory.rxjava.context.ContextPropagation;
+import ru.skillfactory.rxjava.context.TraceHop;
+import ru.skillfactory.rxjava.context.Tracing;
+import ru.skillfactory.rxjava.scheduler.Scheduler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class ObservableObserveOn<T> implements Observable.OnSubscribe<T> {
+    private final Observable<T> source;
+    private final Scheduler scheduler;
+    private final SpillOptions<T> spill;
+
+    ObservableObserveOn(Observable<T> source, Scheduler scheduler, SpillOptions<T> spill) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.spill = spill;
+    }
+
+    @Override
+    public void call(Observer<T> observer) {
+        source.subscribeDeferred(new ObserveOnObserver<>(observer, scheduler, spill));
+    }
+
+    // Сигналы копятся в очереди и доставляются одной задачей планировщика по порядку,
+    // даже если планировщик многопоточный
+    private static final class ObserveOnObserver<T> implements BatchObserver<T>, Runnable {
+        // Сколько записей очереди доставить за одну задачу, прежде чем уступить поток другим задачам планировщика
+        private static final int DRAIN_LIMIT = 256;
+        private static final Object NULL = new Object();
+
+        private final Observer<T> downstream;
+        private final Scheduler scheduler;
+        private final EntryQueue queue;
+        // В режиме сброса на диск в очередь попадают только сами элементы: пакеты и трассировка не сериализуются
+        private final boolean spilling;
+        private final AtomicInteger wip = new AtomicInteger();
+        private Throwable error;
+        private volatile boolean done;
+        // Подписчик бросил исключение при доставке: источник больше не нужен
+        private volatile boolean failed;
+
+        ObserveOnObserver(Observer<T> downstream, Scheduler scheduler, SpillOptions<T> spill) {
+            this.downstream = downstream;
+            this.scheduler = scheduler;
+            this.spilling = spill != null;
+            this.queue = spill != null ? new SpillingQueue<>(spill, NULL) : new MemoryQueue();
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            if (spilling) {
+                offerSpilled(item);
+            } else {
+                TraceHop hop = Tracing.beginHop("observeOn");
+                if (hop != null) {
+                    queue.offer(new Captured(hop, () -> {
+                        try (Context.Scope ignored = hop.context().attach()) {
+                            downstream.onNext(item);
+                        }
+                    }));
+                } else if (!ContextPropagation.isEmpty()) {
+                    // Контекст свой у каждого элемента: после merge в одной очереди бывают элементы разных запросов,
+                    // а задача доставки несет контекст только того, кто ее запустил
+                    queue.offer(new Captured(null, () -> downstream.onNext(item)));
+                } else {
+                    queue.offer(item == null ? NULL : item);
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNextBatch(List<T> items) {
+            if (items.isEmpty() || done) {
+                return;
+            }
+            if (spilling) {
+                for (T item : items) {
+                    offerSpilled(item);
+                }
+            } else if (!ContextPropagation.isEmpty()) {
+                List<T> copy = (List<T>) Arrays.asList(items.toArray());
+                queue.offer(new Captured(null, () -> BatchObserver.emit(downstream, copy)));
+            } else {
+                queue.offer(new Batch(Arrays.asList(items.toArray())));
+            }
+            schedule();
+        }
+
+        // Ошибка записи на диск завершает поток ошибкой; последующие элементы источника отбрасываются
+        private void offerSpilled(T item) {
+            if (done) {
+                return;
+            }
+            try {
+                queue.offer(item == null ? NULL : item);
+            } catch (RuntimeException e) {
+                error = e;
+                done = true;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return failed || downstream.isDisposed();
+        }
+
+        // В потоке того же планировщика доставка идет на месте; ее объем ограничен DRAIN_LIMIT
+        private void schedule() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            if (InlineExecution.enter(scheduler)) {
+                try {
+                    run();
+                } finally {
+                    InlineExecution.exit();
+                }
+            } else {
+                submit();
+            }
+        }
+
+        // Отклоненная планировщиком задача означает, что доставки уже не будет: wip остается ненулевым,
+        // поэтому ошибка передается подписчику сразу, а не через очередь
+        private void submit() {
+            try {
+                scheduler.execute(this);
+            } catch (RejectedExecutionException e) {
+                done = true;
+                queue.clear();
+                downstream.onError(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            int budget = DRAIN_LIMIT;
+            int missed = 1;
+            for (;;) {
+                for (;;) {
+                    if (downstream.isDisposed()) {
+                        queue.clear();
+                        return;
+                    }
+                    boolean d = done;
+                    Object entry;
+                    try {
+                        entry = queue.poll();
+                    } catch (RuntimeException e) {
+                        // Сегмент не прочитался: оставшиеся данные уже не доставить по порядку
+                        queue.clear();
+                        downstream.onError(e);
+                        return;
+                    }
+                    if (entry == null) {
+                        if (d) {
+                            queue.clear();
+                            terminate();
+                            return;
+                        }
+                        break;
+                    }
+                    try {
+                        deliver(entry);
+                    } catch (Throwable e) {
+                        // Доставка идет одной задачей, и брошенное исключение оставило бы wip ненулевым:
+                        // остальные сигналы пропали бы молча. Поток завершается ошибкой подписчика
+                        failed = true;
+                        done = true;
+                        queue.clear();
+                        downstream.onError(e);
+                        return;
+                    }
+                    if (--budget == 0) {
+                        // wip не сбрасывается, поэтому до новой задачи никто другой доставку не начнет
+                        submit();
+                        return;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliver(Object entry) {
+            if (entry instanceof Batch) {
+                BatchObserver.emit(downstream, (List<T>) ((Batch) entry).items);
+            } else if (entry instanceof Captured) {
+                Captured captured = (Captured) entry;
+                if (captured.hop != null) {
+                    captured.hop.delivered();
+                }
+                captured.delivery.run();
+            } else {
+                downstream.onNext(entry == NULL ? null : (T) entry);
+            }
+        }
+
+        private void terminate() {
+            Throwable t = error;
+            if (t != null) {
+                downstream.onError(t);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        // Доставка элемента под контекстом и ThreadLocal потока, который его отправил
+        private static final class Captured {
+            private final TraceHop hop;
+            private final Runnable delivery;
+
+            Captured(TraceHop hop, Runnable delivery) {
+                this.hop = hop;
+                this.delivery = ContextPropagation.wrap(delivery);
+            }
+        }
+
+        private static final class Batch {
+            private final List<Object> items;
+
+            Batch(List<Object> items) {
+                this.items = items;
+            }
+        }
+    }
+
+    // Очередь доставки: один производитель и один потребитель (цикл drain). poll возвращает null,
+    // если следующая запись еще не опубликована
+    interface EntryQueue {
+        void offer(Object entry);
+
+        Object poll();
+
+        void clear();
+    }
+
+    private static final class MemoryQueue implements EntryQueue {
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void offer(Object entry) {
+            queue.offer(entry);
+        }
+
+        @Override
+        public Object poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Observable как Flow.Publisher: каждый подписчик получает свою подписку на источник.
+// Элементы отдаются в пределах запрошенного спроса в потоке источника или в потоке, вызвавшем request;
+// излишек обрабатывается по BackpressureStrategy
+final class ObservablePublisher<T> implements Flow.Publisher<T> {
+    private final Observable<T> source;
+    private final BackpressureStrategy strategy;
+
+    ObservablePublisher(Observable<T> source, BackpressureStrategy strategy) {
+        this.source = source;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        SubscriptionObserver<T> subscription = new SubscriptionObserver<>(subscriber, strategy);
+        subscriber.onSubscribe(subscription);
+        if (!subscription.cancelled) {
+            source.subscribe(subscription);
+        }
+    }
+
+    private static final class SubscriptionObserver<T> implements Observer<T>, Flow.Subscription {
+        private final Flow.Subscriber<? super T> downstream;
+        private final BackpressureStrategy strategy;
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+        // Для LATEST вместо очереди одна ячейка
+        private final AtomicReference<T> latest = new AtomicReference<>();
+        // Спрос, еще не покрытый отправленными элементами
+        private final AtomicLong requested = new AtomicLong();
+        // Спрос, еще не занятый принятыми в очередь элементами (для DROP и ERROR)
+        private final AtomicLong permits = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile boolean done;
+        // Ошибку нарушения протокола доставляем сразу, ошибку источника - после накопленных элементов
+        private volatile boolean violation;
+        private volatile boolean cancelled;
+
+        SubscriptionObserver(Flow.Subscriber<? super T> downstream, BackpressureStrategy strategy) {
+            this.downstream = downstream;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done || cancelled) {
+                return;
+            }
+            if (item == null) {
+                // Flow не допускает null-элементов (правило 2.13)
+                onError(new NullPointerException("Observable emitted null into a Flow.Subscriber"));
+                return;
+            }
+            switch (strategy) {
+                case BUFFER:
+                    queue.offer(item);
+                    break;
+                case LATEST:
+                    latest.set(item);
+                    break;
+                default:
+                    if (takePermit()) {
+                        queue.offer(item);
+                    } else if (strategy == BackpressureStrategy.ERROR) {
+                        fail(new IllegalStateException("Subscriber did not request enough items"));
+                        return;
+                    }
+                    break;
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done || !error.compareAndSet(null, t)) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        private void fail(Throwable t) {
+            if (!done && error.compareAndSet(null, t)) {
+                violation = true;
+                done = true;
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        // После ошибки или отмены источник прекращает эмиссию
+        @Override
+        public boolean isDisposed() {
+            return cancelled || error.get() != null;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Правило 3.9
+                fail(new IllegalArgumentException("request must be positive, got " + n));
+                return;
+            }
+            add(requested, n);
+            add(permits, n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (wip.getAndIncrement() == 0) {
+                clear();
+            }
+        }
+
+        private boolean takePermit() {
+            for (;;) {
+                long p = permits.get();
+                if (p == 0) {
+                    return false;
+                }
+                if (p == Long.MAX_VALUE || permits.compareAndSet(p, p - 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private T poll() {
+            return strategy == BackpressureStrategy.LATEST ? latest.getAndSet(null) : queue.poll();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                long emitted = 0;
+                for (;;) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+                    boolean d = done;
+                    if (violation) {
+                        terminate();
+                        return;
+                    }
+                    if (emitted == r) {
+                        if (d && isEmpty()) {
+                            terminate();
+                            return;
+                        }
+                        break;
+                    }
+                    T item = poll();
+                    if (item == null) {
+                        if (d) {
+                            terminate();
+                            return;
+                        }
+                        break;
+                    }
+                    downstream.onNext(item);
+                    emitted++;
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return strategy == BackpressureStrategy.LATEST ? latest.get() == null : queue.isEmpty();
+        }
+
+        // wip остается ненулевым: после терминального сигнала доставка больше не начнется
+        private void terminate() {
+            cancelled = true;
+            clear();
+            Throwable t = error.get();
+            if (t != null) {
+                downstream.onError(t);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        private void clear() {
+            queue.clear();
+            latest.set(null);
+        }
+
+        private static void add(AtomicLong counter, long n) {
+            for (;;) {
+                long current = counter.get();
+                if (current == Long.MAX_VALUE) {
+                    return;
+                }
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (counter.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+    }
+}
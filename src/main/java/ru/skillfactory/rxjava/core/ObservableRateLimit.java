@@ -0,0 +1,138 @@
+package ru.skillfactory.rxjava.core;
+
+import ru.skillfactory.rxjava.scheduler.Scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class ObservableRateLimit<T> implements Observable.OnSubscribe<T> {
+    private final Observable<T> source;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final Scheduler scheduler;
+    private final RateLimitOverflow overflow;
+
+    ObservableRateLimit(Observable<T> source, double permitsPerSecond, int burst,
+                        Scheduler scheduler, RateLimitOverflow overflow) {
+        this.source = source;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.scheduler = scheduler;
+        this.overflow = overflow;
+    }
+
+    @Override
+    public void call(Observer<T> observer) {
+        source.subscribeDeferred(new RateLimitObserver<>(observer, new TokenBucket(permitsPerSecond, burst),
+                scheduler, overflow));
+    }
+
+    // Ожидание разрешения - таймер планировщика; ни один поток не блокируется
+    private static final class RateLimitObserver<T> implements Observer<T> {
+        private final Observer<T> downstream;
+        private final TokenBucket bucket;
+        private final Scheduler scheduler;
+        private final RateLimitOverflow overflow;
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<T> latest = new AtomicReference<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean timerPending = new AtomicBoolean();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private volatile boolean done;
+
+        RateLimitObserver(Observer<T> downstream, TokenBucket bucket, Scheduler scheduler,
+                          RateLimitOverflow overflow) {
+            this.downstream = downstream;
+            this.bucket = bucket;
+            this.scheduler = scheduler;
+            this.overflow = overflow;
+        }
+
+        @Override
+        public void onNext(T item) {
+            switch (overflow) {
+                case DROP:
+                    // Пока ждущих элементов нет, можно эмитировать прямо в потоке источника
+                    if (bucket.tryAcquire() == 0) {
+                        downstream.onNext(item);
+                    }
+                    return;
+                case LATEST:
+                    latest.set(item);
+                    break;
+                default:
+                    queue.offer(item);
+                    break;
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (error.compareAndSet(null, t)) {
+                drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return downstream.isDisposed();
+        }
+
+        private void onTimer() {
+            timerPending.set(false);
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (downstream.isDisposed()) {
+                    queue.clear();
+                    return;
+                }
+                Throwable t = error.get();
+                if (t != null) {
+                    queue.clear();
+                    downstream.onError(t);
+                    return;
+                }
+                boolean d = done;
+                boolean empty = overflow == RateLimitOverflow.LATEST ? latest.get() == null : queue.isEmpty();
+                if (empty) {
+                    if (d) {
+                        downstream.onComplete();
+                        return;
+                    }
+                } else {
+                    long delay = bucket.tryAcquire();
+                    if (delay == 0) {
+                        downstream.onNext(overflow == RateLimitOverflow.LATEST
+                                ? latest.getAndSet(null) : queue.poll());
+                        continue;
+                    }
+                    if (timerPending.compareAndSet(false, true)) {
+                        scheduler.schedule(this::onTimer, delay, TimeUnit.NANOSECONDS);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
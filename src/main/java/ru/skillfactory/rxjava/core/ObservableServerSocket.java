@@ -0,0 +1,71 @@
+package ru.skillfactory.rxjava.core;
+
+import ru.skillfactory.rxjava.scheduler.SelectorScheduler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+// Принимает соединения в цикле Selector и выдает их неблокирующими каналами
+final class ObservableServerSocket implements Observable.OnSubscribe<SocketChannel> {
+    private final InetSocketAddress address;
+
+    ObservableServerSocket(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    @Override
+    public void call(Observer<SocketChannel> observer) {
+        ServerSocketChannel server;
+        try {
+            server = ServerSocketChannel.open();
+            server.configureBlocking(false);
+            // Порт занимается при подписке, чтобы после subscribe к нему уже можно было подключиться
+            server.bind(address);
+        } catch (IOException e) {
+            observer.onError(e);
+            return;
+        }
+        SelectorScheduler loop = SelectorScheduler.forChannel(server);
+        loop.register(server, SelectionKey.OP_ACCEPT, () -> accept(server, observer), e -> {
+            close(server);
+            observer.onError(e);
+        });
+        // Отписка без новых подключений иначе не была бы замечена, и порт остался бы занят
+        loop.watch(() -> !server.isOpen() || observer.isDisposed(), () -> close(server));
+    }
+
+    private static void accept(ServerSocketChannel server, Observer<SocketChannel> observer) {
+        try {
+            SocketChannel channel;
+            while (!observer.isDisposed() && (channel = server.accept()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    observer.onNext(channel);
+                } catch (Throwable e) {
+                    // Соединение не передано подписчику - закрываем его, чтобы клиент не ждал ответа
+                    channel.close();
+                    throw e;
+                }
+            }
+            if (observer.isDisposed()) {
+                server.close();
+            }
+        } catch (Throwable e) {
+            close(server);
+            observer.onError(e);
+        }
+    }
+
+    private static void close(ServerSocketChannel server) {
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            // Канал уже непригоден, ошибка закрытия ничего не добавляет
+        }
+    }
+}
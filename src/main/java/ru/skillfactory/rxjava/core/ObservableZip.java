@@ -0,0 +1,159 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+final class ObservableZip<R> implements Observable.OnSubscribe<R> {
+    private final List<? extends Observable<?>> sources;
+    private final Function<Object[], R> zipper;
+
+    ObservableZip(List<? extends Observable<?>> sources, Function<Object[], R> zipper) {
+        this.sources = sources;
+        this.zipper = zipper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void call(Observer<R> observer) {
+        ZipCoordinator<R> coordinator = new ZipCoordinator<>(observer, zipper, sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            if (coordinator.isDisposed()) {
+                return;
+            }
+            ((Observable<Object>) sources.get(i)).subscribe(coordinator.inners[i]);
+        }
+        coordinator.drain();
+    }
+
+    // Каждый источник складывает элементы в свою очередь; пара собирается, когда во всех очередях есть элемент
+    private static final class ZipCoordinator<R> {
+        private final Observer<R> downstream;
+        private final Function<Object[], R> zipper;
+        private final ZipInner[] inners;
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        // После терминального сигнала источники должны остановиться, а их элементы - не копиться в очередях
+        private volatile boolean terminated;
+
+        ZipCoordinator(Observer<R> downstream, Function<Object[], R> zipper, int sourceCount) {
+            this.downstream = downstream;
+            this.zipper = zipper;
+            this.inners = new ZipInner[sourceCount];
+            for (int i = 0; i < sourceCount; i++) {
+                inners[i] = new ZipInner(this);
+            }
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            for (;;) {
+                if (downstream.isDisposed()) {
+                    clear();
+                    return;
+                }
+                Throwable t = error.get();
+                if (t != null) {
+                    clear();
+                    downstream.onError(t);
+                    return;
+                }
+                if (inners.length == 0) {
+                    terminated = true;
+                    downstream.onComplete();
+                    return;
+                }
+                boolean ready = true;
+                for (ZipInner inner : inners) {
+                    boolean d = inner.done;
+                    if (inner.queue.peek() == null) {
+                        if (d) {
+                            clear();
+                            downstream.onComplete();
+                            return;
+                        }
+                        ready = false;
+                    }
+                }
+                if (ready) {
+                    Object[] values = new Object[inners.length];
+                    for (int i = 0; i < inners.length; i++) {
+                        values[i] = inners[i].queue.poll();
+                    }
+                    R result;
+                    try {
+                        result = zipper.apply(values);
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                        continue;
+                    }
+                    downstream.onNext(result);
+                    continue;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        boolean isDisposed() {
+            return terminated || error.get() != null || downstream.isDisposed();
+        }
+
+        private void clear() {
+            terminated = true;
+            for (ZipInner inner : inners) {
+                inner.queue.clear();
+            }
+        }
+    }
+
+    private static final class ZipInner implements Observer<Object> {
+        private final ZipCoordinator<?> parent;
+        private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        private volatile boolean done;
+
+        ZipInner(ZipCoordinator<?> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public void onNext(Object item) {
+            if (parent.terminated) {
+                return;
+            }
+            queue.offer(item);
+            if (parent.terminated) {
+                // Завершение успело очистить очереди раньше этой вставки
+                queue.clear();
+                return;
+            }
+            parent.drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (parent.error.compareAndSet(null, t)) {
+                parent.drain();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            parent.drain();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return parent.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.skillfactory.rxjava.core;
+
+// Что делать с элементом, для которого нет свободного разрешения
+public enum RateLimitOverflow {
+    // Задержать: элементы ждут в очереди и уходят по мере появления разрешений
+    BUFFER,
+    // Отбросить элемент
+    DROP,
+    // Хранить только последний ожидающий элемент
+    LATEST
+}
@@ -0,0 +1,34 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@FunctionalInterface
+public interface RetryPolicy {
+    // Задержка перед повторной подпиской в миллисекундах; отрицательное значение - прекратить повторы
+    long delayMillis(int attempt, Throwable error);
+
+    static RetryPolicy exponentialBackoff(int maxRetries, long initialDelay, long maxDelay,
+                                          TimeUnit unit, double jitter) {
+        if (maxRetries < 0 || initialDelay < 0 || maxDelay < initialDelay) {
+            throw new IllegalArgumentException("Invalid backoff parameters");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be in range [0, 1]");
+        }
+        long initialMillis = unit.toMillis(initialDelay);
+        long maxMillis = unit.toMillis(maxDelay);
+        return (attempt, error) -> {
+            if (attempt > maxRetries) {
+                return -1;
+            }
+            int shift = Math.min(attempt - 1, 62);
+            long delay = initialMillis > (maxMillis >> shift) ? maxMillis : initialMillis << shift;
+            if (jitter > 0 && delay > 0) {
+                long spread = (long) (delay * jitter);
+                delay = delay - spread + ThreadLocalRandom.current().nextLong(spread + 1);
+            }
+            return delay;
+        };
+    }
+}
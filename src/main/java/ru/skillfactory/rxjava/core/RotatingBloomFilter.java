@@ -0,0 +1,103 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+// Два фильтра Блума: текущий и предыдущий. Когда в текущий добавлено expectedKeys ключей, он становится
+// предыдущим, а самый старый очищается. Так память остается постоянной, а доля ложных срабатываний -
+// в пределах заданной, сколько бы ключей ни прошло через поток
+final class RotatingBloomFilter {
+    private final long capacity;
+    private final int bitCount;
+    private final int hashCount;
+    private final ToLongFunction<Object> hash;
+    private long[] current;
+    private long[] previous;
+    private long added;
+
+    RotatingBloomFilter(long capacity, double falsePositiveRate, ToLongFunction<Object> hash) {
+        // Проверяются оба фильтра, поэтому каждому достается половина допустимой ошибки
+        double perFilterRate = falsePositiveRate / 2;
+        long bits = (long) Math.ceil(-capacity * Math.log(perFilterRate) / (Math.log(2) * Math.log(2)));
+        if (bits > Integer.MAX_VALUE - 63) {
+            throw new IllegalArgumentException("Bloom filter is too large: " + bits + " bits");
+        }
+        this.capacity = capacity;
+        this.hash = hash;
+        this.bitCount = (int) Math.max(64, bits);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        this.current = new long[(bitCount + 63) >>> 6];
+        this.previous = new long[current.length];
+    }
+
+    // true, если ключ встретился впервые (с точностью до ложных срабатываний)
+    boolean add(Object key) {
+        // Две независимые половины 64-битного хеша (схема Кирша-Митценмахера); h2 нечетный, чтобы шаги не зациклились
+        long mixed = mix(hash.applyAsLong(key));
+        long h1 = mixed;
+        long h2 = mix(mixed ^ 0x9E3779B97F4A7C15L) | 1;
+        if (contains(current, h1, h2) || contains(previous, h1, h2)) {
+            return false;
+        }
+        if (added == capacity) {
+            long[] cleared = previous;
+            Arrays.fill(cleared, 0);
+            previous = current;
+            current = cleared;
+            added = 0;
+        }
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            current[bit >>> 6] |= 1L << bit;
+        }
+        added++;
+        return true;
+    }
+
+    private boolean contains(long[] bits, long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int index(long hash) {
+        return (int) Long.remainderUnsigned(hash, bitCount);
+    }
+
+    // 64-битный хеш для распространенных ключей: строки, числа и UUID различаются полностью,
+    // а не через 32-битный hashCode; для остальных ключей остается hashCode
+    static long defaultHash(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        if (key instanceof CharSequence) {
+            CharSequence chars = (CharSequence) key;
+            // FNV-1a по символам
+            long h = 0xCBF29CE484222325L;
+            for (int i = 0; i < chars.length(); i++) {
+                h = (h ^ chars.charAt(i)) * 0x100000001B3L;
+            }
+            return h;
+        }
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return ((Number) key).longValue();
+        }
+        if (key instanceof UUID) {
+            UUID uuid = (UUID) key;
+            return uuid.getMostSignificantBits() * 31 + mix(uuid.getLeastSignificantBits());
+        }
+        return key.hashCode();
+    }
+
+    // Финализатор splitmix64
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,40 @@
+package ru.skillfactory.rxjava.core;
+
+import java.nio.file.Path;
+
+// Настройки observeOn со сбросом на диск: memoryCapacity элементов держатся в памяти,
+// остальные пишутся в файлы-сегменты по segmentBytes байт в directory. Прочитанные сегменты переиспользуются,
+// поэтому на диске держится столько сегментов, сколько нужно под отставание потребителя. Сегменты сверх
+// небольшого пула удаляются, но место под ними освобождается только после сборки мусора
+public final class SpillOptions<T> {
+    private final Path directory;
+    private final int memoryCapacity;
+    private final int segmentBytes;
+    private final SpillCodec<T> codec;
+
+    public SpillOptions(Path directory, int memoryCapacity, int segmentBytes, SpillCodec<T> codec) {
+        if (memoryCapacity <= 0 || segmentBytes < 64) {
+            throw new IllegalArgumentException("Invalid spill options");
+        }
+        this.directory = directory;
+        this.memoryCapacity = memoryCapacity;
+        this.segmentBytes = segmentBytes;
+        this.codec = codec;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getMemoryCapacity() {
+        return memoryCapacity;
+    }
+
+    public int getSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public SpillCodec<T> getCodec() {
+        return codec;
+    }
+}
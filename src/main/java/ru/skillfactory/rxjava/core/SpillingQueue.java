@@ -0,0 +1,214 @@
+package ru.skillfactory.rxjava.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Очередь для одного производителя и одного потребителя. Пока в памяти меньше memoryCapacity элементов,
+// они хранятся в памяти; остальные сериализуются в отображенные в память файлы-сегменты.
+// Каждый элемент получает порядковый номер, и потребитель берет из памяти или с диска строго следующий номер,
+// поэтому порядок не зависит от того, как производитель чередует память и диск. Прочитанные сегменты
+// переиспользуются: удаленный, но еще отображенный файл занимает место на диске до сборки мусора
+final class SpillingQueue<T> implements ObservableObserveOn.EntryQueue {
+    private static final int NULL_RECORD = -1;
+    private static final int END_OF_SEGMENT = -2;
+    // Длина записи и ее номер
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    // Сколько прочитанных сегментов держать для повторной записи; остальные удаляются
+    private static final int MAX_FREE_SEGMENTS = 16;
+
+    private final SpillOptions<T> options;
+    private final Object nullMarker;
+    private final Queue<Entry> memory = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger memorySize = new AtomicInteger();
+    private final Queue<Segment> segments = new ConcurrentLinkedQueue<>();
+    // Потребитель возвращает сюда дочитанные сегменты, производитель забирает их вместо создания новых
+    private final Queue<Segment> free = new ConcurrentLinkedQueue<>();
+    // Запись на диск публикуется увеличением spilled: чтение read < spilled видит байты записи
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong read = new AtomicLong();
+
+    // Состояние производителя
+    private long produced;
+    private Segment writeSegment;
+    // Состояние потребителя
+    private long consumed;
+
+    SpillingQueue(SpillOptions<T> options, Object nullMarker) {
+        this.options = options;
+        this.nullMarker = nullMarker;
+    }
+
+    @Override
+    public void offer(Object entry) {
+        long sequence = produced++;
+        if (memorySize.get() < options.getMemoryCapacity()) {
+            memory.offer(new Entry(sequence, entry));
+            memorySize.incrementAndGet();
+            return;
+        }
+        write(sequence, entry);
+        spilled.incrementAndGet();
+    }
+
+    // Следующий по номеру элемент либо null, если он еще не опубликован
+    @Override
+    public Object poll() {
+        Entry head = memory.peek();
+        if (head != null && head.sequence == consumed) {
+            memory.poll();
+            memorySize.decrementAndGet();
+            consumed++;
+            return head.item;
+        }
+        if (read.get() == spilled.get()) {
+            return null;
+        }
+        Segment segment = headSegment();
+        if (segment.readBuffer.getLong(segment.readBuffer.position() + Integer.BYTES) != consumed) {
+            return null;
+        }
+        Object entry = readNext(segment);
+        read.incrementAndGet();
+        consumed++;
+        return entry;
+    }
+
+    // Вызывается потребителем при завершении или отписке: непрочитанные и свободные сегменты удаляются
+    @Override
+    public void clear() {
+        memory.clear();
+        memorySize.set(0);
+        Segment segment;
+        while ((segment = segments.poll()) != null) {
+            segment.delete();
+        }
+        while ((segment = free.poll()) != null) {
+            segment.delete();
+        }
+    }
+
+    private void write(long sequence, Object entry) {
+        byte[] bytes = entry == nullMarker ? null : options.getCodec().encode(cast(entry));
+        int recordSize = HEADER_BYTES + (bytes == null ? 0 : bytes.length);
+        if (writeSegment == null || writeSegment.buffer.remaining() < recordSize + Integer.BYTES) {
+            if (writeSegment != null) {
+                writeSegment.buffer.putInt(END_OF_SEGMENT);
+            }
+            writeSegment = nextSegment(recordSize + Integer.BYTES);
+            segments.offer(writeSegment);
+        }
+        writeSegment.buffer.putInt(bytes == null ? NULL_RECORD : bytes.length);
+        writeSegment.buffer.putLong(sequence);
+        if (bytes != null) {
+            writeSegment.buffer.put(bytes);
+        }
+    }
+
+    // Свободный сегмент обычного размера, если запись в него помещается, иначе новый файл
+    private Segment nextSegment(int minBytes) {
+        int size = Math.max(options.getSegmentBytes(), minBytes);
+        if (size == options.getSegmentBytes()) {
+            Segment segment = free.poll();
+            if (segment != null) {
+                segment.reset();
+                return segment;
+            }
+        }
+        return Segment.create(options.getDirectory(), size);
+    }
+
+    // Сегмент с первой непрочитанной записью; дочитанные сегменты возвращаются в пул
+    private Segment headSegment() {
+        for (;;) {
+            Segment segment = segments.peek();
+            if (segment.readBuffer.getInt(segment.readBuffer.position()) != END_OF_SEGMENT) {
+                return segment;
+            }
+            segments.poll();
+            recycle(segment);
+        }
+    }
+
+    private void recycle(Segment segment) {
+        if (segment.buffer.capacity() == options.getSegmentBytes() && free.size() < MAX_FREE_SEGMENTS) {
+            free.offer(segment);
+        } else {
+            segment.delete();
+        }
+    }
+
+    private Object readNext(Segment segment) {
+        int length = segment.readBuffer.getInt();
+        segment.readBuffer.getLong();
+        if (length == NULL_RECORD) {
+            return nullMarker;
+        }
+        byte[] bytes = new byte[length];
+        segment.readBuffer.get(bytes);
+        return options.getCodec().decode(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object entry) {
+        return (T) entry;
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final Object item;
+
+        Entry(long sequence, Object item) {
+            this.sequence = sequence;
+            this.item = item;
+        }
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        // Свой курсор у читателя поверх тех же байт
+        private final ByteBuffer readBuffer;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+            this.readBuffer = buffer.duplicate();
+        }
+
+        static Segment create(Path directory, int size) {
+            try {
+                Path file = Files.createTempFile(directory, "observeOn-", ".spill");
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Вызывается производителем до публикации сегмента в очереди, поэтому потребитель его не видит
+        void reset() {
+            buffer.clear();
+            readBuffer.clear();
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Файл во временном каталоге; не удалось удалить - не повод прерывать поток
+            }
+        }
+    }
+}
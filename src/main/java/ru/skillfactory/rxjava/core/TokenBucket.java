@@ -0,0 +1,37 @@
+package ru.skillfactory.rxjava.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket в форме GCRA: вместо счетчика токенов хранится теоретическое время следующего разрешения,
+// поэтому состояние - один AtomicLong и захват разрешения - один CAS
+final class TokenBucket {
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - burstToleranceNanos);
+    }
+
+    // 0, если разрешение получено, иначе сколько наносекунд ждать до следующего
+    long tryAcquire() {
+        for (;;) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long earliest = tat - burstToleranceNanos;
+            if (earliest - now > 0) {
+                return earliest - now;
+            }
+            long next = (tat - now > 0 ? tat : now) + intervalNanos;
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ru.skillfactory.rxjava.scheduler;
 
+import ru.skillfactory.rxjava.context.ContextPropagation;
+
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -8,11 +10,16 @@ public class ComputationScheduler implements Scheduler {
     private final ExecutorService executor;
 
     public ComputationScheduler() {
-        this.executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        this.executor = Executors.newFixedThreadPool(THREAD_COUNT, SchedulerThreads.factory(this));
     }
 
     @Override
     public void execute(Runnable task) {
-        executor.execute(task);
+        executor.execute(ContextPropagation.wrap(task));
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return SchedulerThreads.isOwnedBy(this);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import ru.skillfactory.rxjava.context.ContextPropagation;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Пул, выбирающий задачу с ближайшим сроком (earliest deadline first).
+// Срок = момент постановки + относительный дедлайн, поэтому задача с дальним сроком со временем
+// становится раньше новых срочных задач и не голодает.
+public class DeadlineScheduler implements Scheduler {
+    private final PriorityBlockingQueue<DeadlineTask> queue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final long defaultDeadlineNanos;
+
+    public DeadlineScheduler(int threadCount, long defaultDeadline, TimeUnit unit) {
+        if (threadCount <= 0 || defaultDeadline < 0) {
+            throw new IllegalArgumentException("Invalid scheduler parameters");
+        }
+        this.defaultDeadlineNanos = unit.toNanos(defaultDeadline);
+        ThreadFactory factory = SchedulerThreads.factory(this);
+        for (int i = 0; i < threadCount; i++) {
+            factory.newThread(this::workLoop).start();
+        }
+    }
+
+    public DeadlineScheduler(int threadCount) {
+        this(threadCount, TaskPriority.NORMAL.deadline(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(task, defaultDeadlineNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void execute(Runnable task, long deadline, TimeUnit unit) {
+        queue.offer(new DeadlineTask(ContextPropagation.wrap(task), System.nanoTime() + unit.toNanos(deadline),
+                sequence.getAndIncrement()));
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return SchedulerThreads.isOwnedBy(this);
+    }
+
+    @Override
+    public Scheduler withDeadline(long deadline, TimeUnit unit) {
+        long deadlineNanos = unit.toNanos(deadline);
+        return new Scheduler() {
+            @Override
+            public void execute(Runnable task) {
+                DeadlineScheduler.this.execute(task, deadlineNanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public boolean isCurrentThread() {
+                return DeadlineScheduler.this.isCurrentThread();
+            }
+
+            @Override
+            public Scheduler withDeadline(long deadline, TimeUnit unit) {
+                return DeadlineScheduler.this.withDeadline(deadline, unit);
+            }
+        };
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void workLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            DeadlineTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    private static final class DeadlineTask implements Comparable<DeadlineTask> {
+        private final Runnable runnable;
+        private final long deadlineNanos;
+        private final long sequence;
+
+        DeadlineTask(Runnable runnable, long deadlineNanos, long sequence) {
+            this.runnable = runnable;
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(DeadlineTask other) {
+            // Разность, а не сравнение значений: System.nanoTime может переполняться
+            long diff = deadlineNanos - other.deadlineNanos;
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import ru.skillfactory.rxjava.context.ContextPropagation;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ElasticIOScheduler implements Scheduler {
+    public enum OverflowPolicy {
+        // Задачу выполняет вызывающий поток - естественное торможение источника
+        CALLER_RUNS,
+        // Задача ждет в ограниченной очереди; при переполнении - RejectedExecutionException
+        BOUNDED_QUEUE,
+        // Сразу RejectedExecutionException
+        FAIL_FAST
+    }
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+
+    public ElasticIOScheduler(int coreSize, int maxSize, long keepAlive, TimeUnit unit, OverflowPolicy policy) {
+        this(coreSize, maxSize, keepAlive, unit, policy, 0);
+    }
+
+    public ElasticIOScheduler(int coreSize, int maxSize, long keepAlive, TimeUnit unit,
+                              OverflowPolicy policy, int queueCapacity) {
+        if (coreSize < 0 || maxSize <= 0 || maxSize < coreSize || keepAlive < 0) {
+            throw new IllegalArgumentException("Invalid pool size parameters");
+        }
+        if (policy == OverflowPolicy.BOUNDED_QUEUE && queueCapacity <= 0) {
+            throw new IllegalArgumentException("BOUNDED_QUEUE policy requires positive queue capacity");
+        }
+        BlockingQueue<Runnable> queue;
+        RejectedExecutionHandler handler;
+        GrowFirstQueue growFirstQueue = null;
+        switch (policy) {
+            case CALLER_RUNS:
+                queue = new SynchronousQueue<>();
+                handler = new ThreadPoolExecutor.CallerRunsPolicy();
+                break;
+            case BOUNDED_QUEUE:
+                GrowFirstQueue bounded = new GrowFirstQueue(queueCapacity, maxSize);
+                growFirstQueue = bounded;
+                queue = bounded;
+                handler = (task, pool) -> {
+                    if (pool.isShutdown() || !bounded.forceOffer(task)) {
+                        throw new RejectedExecutionException("ElasticIOScheduler queue is full");
+                    }
+                };
+                break;
+            case FAIL_FAST:
+                queue = new SynchronousQueue<>();
+                handler = new ThreadPoolExecutor.AbortPolicy();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + policy);
+        }
+        ThreadFactory threadFactory = namedThreadFactory();
+        if (growFirstQueue != null) {
+            threadFactory = growFirstQueue.counting(threadFactory);
+        }
+        this.executor = new ThreadPoolExecutor(coreSize, maxSize, keepAlive, unit, queue,
+                SchedulerThreads.factory(this, threadFactory), handler);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(ContextPropagation.wrap(task));
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return SchedulerThreads.isOwnedBy(this);
+    }
+
+    // Текущее число потоков: растет с нагрузкой до maxSize и уменьшается после keepAlive простоя
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    private static ThreadFactory namedThreadFactory() {
+        int poolNumber = POOL_NUMBER.incrementAndGet();
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> new Thread(runnable,
+                "elastic-io-" + poolNumber + "-" + threadNumber.incrementAndGet());
+    }
+
+    // ThreadPoolExecutor создает потоки сверх core только когда очередь отказывает,
+    // поэтому при занятых потоках очередь отказывает, пока пул не дорос до maxSize,
+    // а ставит в очередь уже обработчик отказа.
+    // Потоки и ожидающие задачу потоки считаются здесь же: getActiveCount и getPoolSize пула берут
+    // его общую блокировку, и каждая постановка задачи конкурировала бы за нее
+    private static final class GrowFirstQueue extends LinkedBlockingQueue<Runnable> {
+        private final int maxSize;
+        private final AtomicInteger threads = new AtomicInteger();
+        // Поток свободен ровно пока ждет в take/poll; поток, только что созданный со своей первой задачей, занят
+        private final AtomicInteger idle = new AtomicInteger();
+
+        GrowFirstQueue(int capacity, int maxSize) {
+            super(capacity);
+            this.maxSize = maxSize;
+        }
+
+        ThreadFactory counting(ThreadFactory delegate) {
+            return runnable -> {
+                threads.incrementAndGet();
+                return delegate.newThread(() -> {
+                    try {
+                        runnable.run();
+                    } finally {
+                        threads.decrementAndGet();
+                    }
+                });
+            };
+        }
+
+        @Override
+        public boolean offer(Runnable task) {
+            if (idle.get() == 0 && threads.get() < maxSize) {
+                return false;
+            }
+            return super.offer(task);
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            idle.incrementAndGet();
+            try {
+                return super.take();
+            } finally {
+                idle.decrementAndGet();
+            }
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            idle.incrementAndGet();
+            try {
+                return super.poll(timeout, unit);
+            } finally {
+                idle.decrementAndGet();
+            }
+        }
+
+        boolean forceOffer(Runnable task) {
+            return super.offer(task);
+        }
+    }
+}
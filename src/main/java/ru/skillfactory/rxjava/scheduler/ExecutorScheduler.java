@@ -0,0 +1,24 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import ru.skillfactory.rxjava.context.ContextPropagation;
+
+import java.util.concurrent.Executor;
+
+final class ExecutorScheduler implements Scheduler {
+    private final Executor executor;
+
+    ExecutorScheduler(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Runnable wrapped = ContextPropagation.wrap(task);
+        executor.execute(() -> SchedulerThreads.runAs(this, wrapped));
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return SchedulerThreads.isOwnedBy(this);
+    }
+}
@@ -1,13 +1,20 @@
 package ru.skillfactory.rxjava.scheduler;
 
+import ru.skillfactory.rxjava.context.ContextPropagation;
+
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class IOThreadScheduler implements Scheduler {
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ExecutorService executor = Executors.newCachedThreadPool(SchedulerThreads.factory(this));
 
     @Override
     public void execute(Runnable task) {
-        executor.execute(task);
+        executor.execute(ContextPropagation.wrap(task));
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return SchedulerThreads.isOwnedBy(this);
     }
 }
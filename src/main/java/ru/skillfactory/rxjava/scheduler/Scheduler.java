@@ -1,5 +1,36 @@
 package ru.skillfactory.rxjava.scheduler;
 
+import ru.skillfactory.rxjava.context.ContextPropagation;
+import ru.skillfactory.rxjava.core.Disposable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 public interface Scheduler {
     void execute(Runnable task);
-}
\ No newline at end of file
+
+    // true, если текущий поток принадлежит этому планировщику: тогда операторы могут выполнить работу на месте
+    default boolean isCurrentThread() {
+        return false;
+    }
+
+    // Планировщик с тем же пулом, но с заданным сроком выполнения задач; FIFO-планировщики срок игнорируют
+    default Scheduler withDeadline(long deadline, TimeUnit unit) {
+        return this;
+    }
+
+    default Scheduler withPriority(TaskPriority priority) {
+        return withDeadline(priority.deadline(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    static Scheduler from(Executor executor) {
+        return new ExecutorScheduler(executor);
+    }
+
+    // Отложенный запуск: ожидание идет на общем таймере, поток планировщика занимается только самой задачей
+    default Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        // Контекст захватывается сейчас: execute будет вызван уже из потока таймера
+        Runnable wrapped = ContextPropagation.wrap(task);
+        return SchedulerTimer.schedule(() -> execute(wrapped), delay, unit);
+    }
+}
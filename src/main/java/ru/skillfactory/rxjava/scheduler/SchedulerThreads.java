@@ -0,0 +1,38 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Помнит, какому планировщику принадлежит текущий поток, чтобы операторы могли не перепрыгивать на тот же пул
+final class SchedulerThreads {
+    private static final ThreadLocal<Scheduler> OWNER = new ThreadLocal<>();
+
+    private SchedulerThreads() {
+    }
+
+    static ThreadFactory factory(Scheduler owner) {
+        return factory(owner, Executors.defaultThreadFactory());
+    }
+
+    static ThreadFactory factory(Scheduler owner, ThreadFactory delegate) {
+        return runnable -> delegate.newThread(() -> {
+            OWNER.set(owner);
+            runnable.run();
+        });
+    }
+
+    static boolean isOwnedBy(Scheduler scheduler) {
+        return OWNER.get() == scheduler;
+    }
+
+    // Для чужих пулов: поток принадлежит планировщику только на время выполнения его задачи
+    static void runAs(Scheduler owner, Runnable task) {
+        Scheduler previous = OWNER.get();
+        OWNER.set(owner);
+        try {
+            task.run();
+        } finally {
+            OWNER.set(previous);
+        }
+    }
+}
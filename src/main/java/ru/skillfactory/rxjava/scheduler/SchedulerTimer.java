@@ -0,0 +1,40 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import ru.skillfactory.rxjava.core.Disposable;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+final class SchedulerTimer {
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private SchedulerTimer() {
+    }
+
+    static Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        ScheduledFuture<?> future = TIMER.schedule(task, Math.max(0, delay), unit);
+        return new Disposable() {
+            @Override
+            public void dispose() {
+                future.cancel(false);
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return future.isDone();
+            }
+        };
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "rx-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Отмененные таймауты не должны копиться в очереди таймера
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
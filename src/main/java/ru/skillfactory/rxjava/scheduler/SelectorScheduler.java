@@ -0,0 +1,229 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import ru.skillfactory.rxjava.context.ContextPropagation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// Цикл событий на одном Selector: один поток обслуживает готовность всех зарегистрированных каналов
+// и выполняет задачи, переданные через execute. Обработчики не должны блокироваться
+public final class SelectorScheduler implements Scheduler {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final int SHARED_LOOPS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+    // Как часто цикл проверяет условия watch, если каналы не дают событий
+    private static final long WATCH_PERIOD_MILLIS = 50;
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // Изменяются только в потоке цикла
+    private final List<Watch> watches = new ArrayList<>();
+    private long nextWatchCheck;
+
+    public SelectorScheduler() {
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ThreadFactory factory = SchedulerThreads.factory(this, runnable -> {
+            Thread thread = new Thread(runnable, "rx-selector-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        factory.newThread(this::loop).start();
+    }
+
+    // Общие циклы: канал всегда попадает в один и тот же цикл, так что чтение и запись идут в одном потоке
+    public static SelectorScheduler forChannel(SelectableChannel channel) {
+        SelectorScheduler[] loops = Shared.LOOPS;
+        return loops[(System.identityHashCode(channel) & Integer.MAX_VALUE) % loops.length];
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.offer(ContextPropagation.wrap(task));
+        selector.wakeup();
+    }
+
+    @Override
+    public boolean isCurrentThread() {
+        return SchedulerThreads.isOwnedBy(this);
+    }
+
+    // Добавляет интерес к операции op (OP_ACCEPT, OP_READ, OP_WRITE) и обработчик ее готовности.
+    // Вызов из чужого потока переносится в цикл, поэтому сбой регистрации передается в onError, а не бросается
+    public void register(SelectableChannel channel, int op, Runnable handler, Consumer<Throwable> onError) {
+        if (!isCurrentThread()) {
+            execute(() -> register(channel, op, handler, onError));
+            return;
+        }
+        try {
+            if (!channel.isOpen()) {
+                throw new ClosedChannelException();
+            }
+            SelectionKey key = channel.keyFor(selector);
+            if (key == null) {
+                key = channel.register(selector, 0, new Handlers());
+            }
+            ((Handlers) key.attachment()).set(op, handler);
+            key.interestOps(key.interestOps() | op);
+        } catch (IOException | RuntimeException e) {
+            onError.accept(e);
+        }
+    }
+
+    public void unregister(SelectableChannel channel, int op) {
+        if (!isCurrentThread()) {
+            execute(() -> unregister(channel, op));
+            return;
+        }
+        SelectionKey key = channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(key.interestOps() & ~op);
+            ((Handlers) key.attachment()).set(op, null);
+        }
+    }
+
+    // Выполняет action в цикле, как только condition станет истинным. Условие проверяется в потоке цикла
+    // не реже раза в WATCH_PERIOD_MILLIS - так освобождаются ресурсы подписок, отмененных без событий на канале
+    public void watch(BooleanSupplier condition, Runnable action) {
+        if (!isCurrentThread()) {
+            execute(() -> watch(condition, action));
+            return;
+        }
+        watches.add(new Watch(condition, action));
+    }
+
+    private void loop() {
+        for (;;) {
+            try {
+                selector.select(watches.isEmpty() ? 0 : WATCH_PERIOD_MILLIS);
+            } catch (IOException e) {
+                // Сбой одного select не должен останавливать цикл: каналы и задачи остаются на нем
+                continue;
+            }
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException ignored) {
+                    // Как и в пулах потоков, исключение задачи не останавливает остальные задачи
+                }
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                dispatch(key);
+            }
+            checkWatches();
+        }
+    }
+
+    private void checkWatches() {
+        long now = System.nanoTime();
+        if (watches.isEmpty() || now - nextWatchCheck < 0) {
+            return;
+        }
+        nextWatchCheck = now + TimeUnit.MILLISECONDS.toNanos(WATCH_PERIOD_MILLIS);
+        Iterator<Watch> iterator = watches.iterator();
+        while (iterator.hasNext()) {
+            Watch watch = iterator.next();
+            try {
+                if (watch.condition.getAsBoolean()) {
+                    iterator.remove();
+                    watch.action.run();
+                }
+            } catch (RuntimeException ignored) {
+                // Как и задачи, сломанное условие не мешает остальным
+            }
+        }
+    }
+
+    private void dispatch(SelectionKey key) {
+        Handlers handlers = (Handlers) key.attachment();
+        try {
+            int ready = key.readyOps();
+            if ((ready & SelectionKey.OP_ACCEPT) != 0) {
+                handlers.run(SelectionKey.OP_ACCEPT, key);
+            }
+            if ((ready & SelectionKey.OP_READ) != 0) {
+                handlers.run(SelectionKey.OP_READ, key);
+            }
+            if ((ready & SelectionKey.OP_WRITE) != 0) {
+                handlers.run(SelectionKey.OP_WRITE, key);
+            }
+        } catch (Throwable e) {
+            // Обработчики сами сообщают об ошибках своим подписчикам; сюда доходит только то, что они упустили.
+            // Цикл продолжает обслуживать остальные каналы, а этот закрывается, чтобы собеседник не ждал вечно
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+                // Канал уже непригоден
+            }
+        }
+    }
+
+    private static final class Watch {
+        private final BooleanSupplier condition;
+        private final Runnable action;
+
+        Watch(BooleanSupplier condition, Runnable action) {
+            this.condition = condition;
+            this.action = action;
+        }
+    }
+
+    private static final class Handlers {
+        private Runnable accept;
+        private Runnable read;
+        private Runnable write;
+
+        void set(int op, Runnable handler) {
+            if (op == SelectionKey.OP_ACCEPT) {
+                accept = handler;
+            } else if (op == SelectionKey.OP_READ) {
+                read = handler;
+            } else if (op == SelectionKey.OP_WRITE) {
+                write = handler;
+            } else {
+                throw new IllegalArgumentException("Unsupported operation: " + op);
+            }
+        }
+
+        void run(int op, SelectionKey key) {
+            Runnable handler = op == SelectionKey.OP_ACCEPT ? accept : op == SelectionKey.OP_READ ? read : write;
+            if (handler != null && key.isValid()) {
+                handler.run();
+            }
+        }
+    }
+
+    private static final class Shared {
+        private static final SelectorScheduler[] LOOPS = createLoops();
+
+        private static SelectorScheduler[] createLoops() {
+            SelectorScheduler[] loops = new SelectorScheduler[SHARED_LOOPS];
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new SelectorScheduler();
+            }
+            return loops;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+// Приоритет задается через относительный дедлайн: чем выше приоритет, тем ближе срок
+public enum TaskPriority {
+    CRITICAL(1),
+    HIGH(10),
+    NORMAL(100),
+    BULK(1_000);
+
+    private final long deadlineMillis;
+
+    TaskPriority(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public long deadline(TimeUnit unit) {
+        return unit.convert(deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+}
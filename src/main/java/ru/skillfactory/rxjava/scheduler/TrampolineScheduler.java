@@ -0,0 +1,59 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import ru.skillfactory.rxjava.context.ContextPropagation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+public class TrampolineScheduler implements Scheduler {
+    private static final ThreadLocal<Deque<Runnable>> QUEUE = new ThreadLocal<>();
+
+    // Задача выполняется в текущем потоке; вложенные вызовы ставятся в очередь и выполняются после нее, не углубляя стек
+    @Override
+    public void execute(Runnable task) {
+        Deque<Runnable> queue = QUEUE.get();
+        if (queue != null) {
+            // Задача выполнится позже, когда контекст потока может быть уже другим
+            queue.offer(ContextPropagation.wrap(task));
+            return;
+        }
+        queue = new ArrayDeque<>();
+        QUEUE.set(queue);
+        try {
+            Runnable next = task;
+            while (next != null) {
+                try {
+                    next.run();
+                } catch (RuntimeException e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+                next = queue.poll();
+            }
+        } finally {
+            QUEUE.remove();
+        }
+    }
+
+    // Откладывает очередь текущего цикла: задачи, поставленные до resume, выполнит новый цикл,
+    // который закончится раньше внешнего
+    public static Deque<Runnable> suspend() {
+        Deque<Runnable> outer = QUEUE.get();
+        if (outer != null) {
+            QUEUE.remove();
+        }
+        return outer;
+    }
+
+    public static void resume(Deque<Runnable> outer) {
+        if (outer != null) {
+            QUEUE.set(outer);
+        }
+    }
+
+    // Поток принадлежит трамплину, пока выполняет его цикл: новые задачи тогда не углубляют стек
+    @Override
+    public boolean isCurrentThread() {
+        return QUEUE.get() != null;
+    }
+}
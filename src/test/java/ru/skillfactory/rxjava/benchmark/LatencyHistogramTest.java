@@ -0,0 +1,52 @@
+package ru.skillfactory.rxjava.benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    // 1. Тесты LatencyHistogram
+
+    // Проверяет процентили и максимум на известном наборе значений
+    // Убеждается, что малые значения считаются точно, а большие - с погрешностью корзины не больше ~1.6%
+    @Test
+    public void testPercentilesAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99), "Пустая гистограмма должна давать 0");
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(10_000);
+        histogram.record(1_000_000);
+
+        assertEquals(102, histogram.count(), "Должны быть учтены все значения");
+        assertEquals(1_000_000, histogram.max(), "Максимум должен быть точным");
+        assertEquals(51, histogram.percentile(50), "Значения меньше 128 хранятся точно");
+        assertEquals(100, histogram.percentile(98), "Значения меньше 128 хранятся точно");
+        long p99 = histogram.percentile(99);
+        assertTrue(p99 >= 10_000 && p99 <= 10_000 * 1.016,
+                "Процентиль должен попасть в корзину значения 10000, получено " + p99);
+        assertEquals(1_000_000, histogram.percentile(100), "Верхний процентиль ограничен максимумом");
+    }
+
+    // Проверяет граничные значения
+    // Убеждается, что отрицательные значения считаются нулем, а каждая степень двойки попадает в свою корзину
+    @Test
+    public void testBucketBoundaries() {
+        LatencyHistogram negative = new LatencyHistogram();
+        negative.record(-5);
+        assertEquals(0, negative.percentile(100), "Отрицательное значение должно считаться нулем");
+
+        for (int bits = 7; bits < 40; bits++) {
+            long value = 1L << bits;
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(value * 3);
+            long p50 = histogram.percentile(50);
+            assertTrue(p50 >= value && p50 < value + (value >> 6),
+                    "Корзина значения " + value + " должна начинаться с него, получено " + p50);
+        }
+    }
+}
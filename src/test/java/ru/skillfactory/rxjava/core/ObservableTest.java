@@ -1,14 +1,40 @@
 package ru.skillfactory.rxjava.core;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.skillfactory.rxjava.context.Context;
+import ru.skillfactory.rxjava.context.ContextPropagation;
+import ru.skillfactory.rxjava.context.Tracing;
+import ru.skillfactory.rxjava.scheduler.Scheduler;
 import ru.skillfactory.rxjava.scheduler.SingleThreadScheduler;
-
+import ru.skillfactory.rxjava.scheduler.TrampolineScheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.BindException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -497,4 +523,1487 @@ public class ObservableTest {
         assertEquals(2, nextCount.get(), "Каждый подписчик должен получить элемент");
         assertEquals(2, completeCount.get(), "Каждый подписчик должен получить onComplete");
     }
-}
\ No newline at end of file
+
+    // 6. Тесты повторов и таймаутов
+
+    // Проверяет оператор retry
+    // Убеждается, что после исчерпания попыток ошибка передается подписчику
+    @Test
+    public void testRetry() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        List<Throwable> errors = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean(false);
+
+        Observable<Integer> flaky = Observable.create(observer -> {
+            if (subscriptions.incrementAndGet() < 3) {
+                observer.onError(new RuntimeException("Flaky"));
+            } else {
+                observer.onNext(42);
+                observer.onComplete();
+            }
+        });
+
+        flaky.retry(5).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                assertEquals(Integer.valueOf(42), item, "Должен быть получен элемент успешной попытки");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                errors.add(t);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+
+        assertEquals(3, subscriptions.get(), "Источник должен быть подписан 3 раза");
+        assertTrue(errors.isEmpty(), "Ошибки не должны доходить до подписчика");
+        assertTrue(completed.get(), "Поток должен завершиться успешно");
+
+        subscriptions.set(-100);
+        flaky.retry(2).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                fail("Элементы не ожидались");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                errors.add(t);
+            }
+
+            @Override
+            public void onComplete() {
+                fail("Поток не должен завершаться успешно");
+            }
+        });
+
+        assertEquals(-97, subscriptions.get(), "Должна быть 1 подписка и 2 повтора");
+        assertEquals(1, errors.size(), "После исчерпания попыток должна прийти ошибка");
+    }
+
+    // Проверяет retryWhen с экспоненциальной задержкой
+    // Убеждается, что повторы выполняются по таймеру планировщика
+    @Test
+    public void testRetryWhenWithBackoff() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger subscriptions = new AtomicInteger();
+        SingleThreadScheduler scheduler = new SingleThreadScheduler();
+
+        Observable.<Integer>create(observer -> {
+                    if (subscriptions.incrementAndGet() < 4) {
+                        observer.onError(new RuntimeException("Flaky"));
+                    } else {
+                        observer.onNext(1);
+                        observer.onComplete();
+                    }
+                })
+                .retryWhen(RetryPolicy.exponentialBackoff(5, 10, 100, TimeUnit.MILLISECONDS, 0.5), scheduler)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка в retryWhen: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Поток должен завершиться после повторов");
+        assertEquals(4, subscriptions.get(), "Источник должен быть подписан 4 раза");
+    }
+
+    // Проверяет timeout с резервным источником
+    // Убеждается, что при отсутствии элементов подписка переключается на fallback
+    @Test
+    public void testTimeoutWithFallback() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Integer> received = new ArrayList<>();
+        SingleThreadScheduler scheduler = new SingleThreadScheduler();
+
+        Observable<Integer> fallback = Observable.create(observer -> {
+            observer.onNext(2);
+            observer.onComplete();
+        });
+
+        Observable.<Integer>create(observer -> observer.onNext(1))
+                .timeout(50, TimeUnit.MILLISECONDS, scheduler, fallback)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        received.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка в timeout: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Резервный источник должен завершить поток");
+        assertEquals(List.of(1, 2), received, "Должен быть получен элемент источника и элемент fallback");
+    }
+
+    // Проверяет отписку от источника после таймаута и проверку аргументов retryWhen
+    // Убеждается, что источник узнает о таймауте, а retryWhen без планировщика отклоняется сразу
+    @Test
+    public void testTimeoutDisposesUpstream() throws InterruptedException {
+        CountDownLatch checked = new CountDownLatch(1);
+        AtomicBoolean upstreamDisposed = new AtomicBoolean();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        Observable.<Integer>create(observer -> {
+                    observer.onNext(1);
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    upstreamDisposed.set(observer.isDisposed());
+                    checked.countDown();
+                })
+                .subscribeOn(new SingleThreadScheduler())
+                .timeout(50, TimeUnit.MILLISECONDS, new SingleThreadScheduler())
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        error.set(t);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        fail("Поток должен завершиться таймаутом");
+                    }
+                });
+
+        assertTrue(checked.await(1, TimeUnit.SECONDS), "Источник должен отработать");
+        assertTrue(error.get() instanceof TimeoutException, "Должна быть получена TimeoutException");
+        assertTrue(upstreamDisposed.get(), "После таймаута источник должен видеть отписку");
+        assertThrows(NullPointerException.class,
+                () -> Observable.fromArray(1).retryWhen((attempt, e) -> 100, null),
+                "retryWhen без планировщика должен отклоняться");
+    }
+
+    // Проверяет onErrorResumeNext
+    // Убеждается, что ошибка заменяется альтернативным потоком
+    @Test
+    public void testOnErrorResumeNext() {
+        List<Integer> received = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean(false);
+
+        Observable.<Integer>create(observer -> {
+                    observer.onNext(1);
+                    observer.onError(new RuntimeException("Test error"));
+                })
+                .onErrorResumeNext(t -> Observable.create(observer -> {
+                    observer.onNext(-1);
+                    observer.onComplete();
+                }))
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        received.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Ошибка должна быть перехвачена: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        completed.set(true);
+                    }
+                });
+
+        assertEquals(List.of(1, -1), received, "Должны быть получены элементы обоих потоков");
+        assertTrue(completed.get(), "Поток должен завершиться успешно");
+    }
+
+    // 7. Тесты комбинирования потоков
+
+    // Проверяет merge источников из разных планировщиков
+    // Убеждается, что все элементы доставлены и onComplete приходит один раз после всех источников
+    @Test
+    public void testMergeFromDifferentSchedulers() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger counter = new AtomicInteger();
+        AtomicInteger completeCount = new AtomicInteger();
+
+        Observable<Integer> first = Observable.<Integer>create(observer -> {
+            for (int i = 0; i < 1000; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        }).subscribeOn(new SingleThreadScheduler());
+        Observable<Integer> second = Observable.<Integer>create(observer -> {
+            for (int i = 0; i < 1000; i++) {
+                observer.onNext(i);
+            }
+            observer.onComplete();
+        }).subscribeOn(new SingleThreadScheduler());
+
+        Observable.merge(first, second).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                counter.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка в merge: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                completeCount.incrementAndGet();
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertEquals(2000, counter.get(), "Должны быть получены элементы обоих источников");
+        assertEquals(1, completeCount.get(), "onComplete должен прийти ровно один раз");
+    }
+
+    // Проверяет concatMap
+    // Убеждается, что внутренние потоки выполняются последовательно и порядок сохраняется
+    @Test
+    public void testConcatMapPreservesOrder() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> received = new ArrayList<>();
+        SingleThreadScheduler scheduler = new SingleThreadScheduler();
+
+        Observable.<Integer>create(observer -> {
+                    observer.onNext(1);
+                    observer.onNext(2);
+                    observer.onComplete();
+                })
+                .concatMap(i -> Observable.<String>create(observer -> {
+                    observer.onNext("A" + i);
+                    observer.onNext("B" + i);
+                    observer.onComplete();
+                }).subscribeOn(scheduler))
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(String item) {
+                        received.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка в concatMap: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertEquals(List.of("A1", "B1", "A2", "B2"), received, "Порядок элементов должен сохраняться");
+    }
+
+    // Проверяет zip и combineLatest
+    // Убеждается, что zip собирает пары по индексу, а combineLatest - по последним значениям
+    @Test
+    public void testZipAndCombineLatest() {
+        List<String> zipped = new ArrayList<>();
+        List<String> combined = new ArrayList<>();
+
+        Observable<Integer> numbers = Observable.create(observer -> {
+            observer.onNext(1);
+            observer.onNext(2);
+            observer.onNext(3);
+            observer.onComplete();
+        });
+        Observable<String> letters = Observable.create(observer -> {
+            observer.onNext("a");
+            observer.onNext("b");
+            observer.onComplete();
+        });
+
+        Observable.zip(numbers, letters, (n, l) -> l + n).subscribe(new Observer<>() {
+            @Override
+            public void onNext(String item) {
+                zipped.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка в zip: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        Observable.combineLatest(numbers, letters, (n, l) -> l + n).subscribe(new Observer<>() {
+            @Override
+            public void onNext(String item) {
+                combined.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка в combineLatest: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertEquals(List.of("a1", "b2"), zipped, "zip должен объединять элементы попарно");
+        assertEquals(List.of("a3", "b3"), combined, "combineLatest должен использовать последние значения");
+    }
+
+    // Проверяет zip и combineLatest с бесконечным источником
+    // Убеждается, что после завершения или ошибки оператор сообщает источнику об отписке
+    @Test
+    public void testZipAndCombineLatestStopSources() {
+        AtomicInteger zipEmitted = new AtomicInteger();
+        AtomicInteger latestEmitted = new AtomicInteger();
+        AtomicBoolean zipCompleted = new AtomicBoolean();
+        AtomicReference<Throwable> latestError = new AtomicReference<>();
+
+        Observable<Integer> one = Observable.create(observer -> {
+            observer.onNext(1);
+            observer.onComplete();
+        });
+        Observable.zip(one, endless(zipEmitted), Integer::sum).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка в zip: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                zipCompleted.set(true);
+            }
+        });
+
+        Observable<Integer> failing = Observable.create(observer -> observer.onError(new IllegalStateException("boom")));
+        Observable.combineLatest(failing, endless(latestEmitted), Integer::sum).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                latestError.set(t);
+            }
+
+            @Override
+            public void onComplete() {
+                fail("combineLatest должен завершиться ошибкой");
+            }
+        });
+
+        assertTrue(zipCompleted.get(), "zip должен завершиться после первой пары");
+        assertTrue(zipEmitted.get() <= 2, "Источник zip должен остановиться после завершения");
+        assertEquals("boom", latestError.get().getMessage(), "Ошибка должна дойти до подписчика");
+        assertEquals(0, latestEmitted.get(), "Источник combineLatest не должен запускаться после ошибки");
+    }
+
+    // Источник, который эмитирует, пока подписчик не отпишется
+    private static Observable<Integer> endless(AtomicInteger emitted) {
+        return Observable.create(observer -> {
+            while (!observer.isDisposed()) {
+                observer.onNext(emitted.incrementAndGet());
+            }
+        });
+    }
+
+    // 8. Тесты глубоких цепочек
+
+    // Проверяет цепочку из тысяч операторов map и filter
+    // Убеждается, что подписка и доставка элементов не переполняют стек
+    @Test
+    public void testDeepOperatorChain() {
+        List<Integer> received = new ArrayList<>();
+
+        Observable<Integer> observable = Observable.create(observer -> {
+            observer.onNext(0);
+            observer.onNext(1);
+            observer.onComplete();
+        });
+        for (int i = 0; i < 100_000; i++) {
+            observable = observable.map(x -> x + 1).filter(x -> x >= 0);
+        }
+
+        observable.subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка в глубокой цепочке: " + t);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertEquals(List.of(100_000, 100_001), received, "Элементы должны пройти все стадии");
+    }
+
+    // Проверяет рекурсивное раскрытие flatMap
+    // Убеждается, что внутренние источники подписываются в том же потоке и поток завершается
+    @Test
+    public void testRecursiveFlatMap() {
+        AtomicInteger counter = new AtomicInteger();
+        AtomicBoolean completed = new AtomicBoolean(false);
+        String thread = Thread.currentThread().getName();
+
+        countdown(100_000).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                assertEquals(thread, Thread.currentThread().getName(), "Поток не должен меняться");
+                counter.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка в рекурсивном flatMap: " + t);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+
+        assertEquals(1, counter.get(), "Должен быть получен один элемент с нижнего уровня рекурсии");
+        assertTrue(completed.get(), "Поток должен завершиться после всех уровней");
+    }
+
+    // Проверяет цепочки из десятков тысяч flatMap и distinctUntilChanged
+    // Убеждается, что доставка через каждую стадию не переполняет стек
+    @Test
+    public void testDeepFlatMapAndDistinctChain() {
+        List<Integer> received = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean(false);
+
+        Observable<Integer> observable = Observable.fromArray(1, 1, 2);
+        for (int i = 0; i < 50_000; i++) {
+            observable = observable.flatMap(x -> Observable.fromArray(x));
+        }
+        for (int i = 0; i < 50_000; i++) {
+            observable = observable.distinctUntilChanged();
+        }
+
+        observable.subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка в глубокой цепочке: " + t);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+
+        assertEquals(List.of(1, 2), received, "Повторы должны быть отброшены, остальное - дойти до подписчика");
+        assertTrue(completed.get(), "Поток должен завершиться");
+    }
+
+    // Проверяет синхронную подписку изнутри onNext другой цепочки с flatMap
+    // Убеждается, что вложенная цепочка отрабатывает до возврата из subscribe, а null проходит через flatMap
+    @Test
+    public void testNestedSynchronousSubscribe() {
+        List<List<Integer>> nested = new ArrayList<>();
+        Observable.fromArray(1).flatMap(x -> Observable.fromArray(x)).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                List<Integer> received = new ArrayList<>();
+                Observable.fromArray(1, 2, 3).flatMap(y -> Observable.fromArray(y * 10)).subscribe(collectTo(received));
+                nested.add(List.copyOf(received));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertEquals(List.of(List.of(10, 20, 30)), nested, "Вложенная цепочка должна отработать внутри subscribe");
+
+        List<Integer> withNull = new ArrayList<>();
+        Observable.fromArray(1, 2).flatMap(x -> Observable.fromArray(x == 1 ? null : x)).subscribe(collectTo(withNull));
+        assertEquals(Arrays.asList(null, 2), withNull, "null из внутреннего источника должен дойти до подписчика");
+    }
+
+    // Проверяет TrampolineScheduler
+    // Убеждается, что вложенные задачи выполняются после текущей, в том же потоке
+    @Test
+    public void testTrampolineScheduler() {
+        List<String> order = new ArrayList<>();
+        TrampolineScheduler scheduler = new TrampolineScheduler();
+
+        scheduler.execute(() -> {
+            scheduler.execute(() -> order.add("inner"));
+            order.add("outer");
+        });
+
+        assertEquals(List.of("outer", "inner"), order, "Вложенная задача должна выполниться после текущей");
+    }
+
+    private static Observable<Integer> countdown(int n) {
+        return Observable.<Integer>create(observer -> {
+            observer.onNext(n);
+            observer.onComplete();
+        }).flatMap(i -> i == 0
+                ? Observable.create(observer -> {
+                    observer.onNext(0);
+                    observer.onComplete();
+                })
+                : countdown(i - 1));
+    }
+
+    // 9. Тесты пакетной доставки
+
+    // Проверяет передачу пачки через map, filter и observeOn
+    // Убеждается, что BatchObserver получает элементы одной пачкой, а обычный Observer - поэлементно
+    @Test
+    public void testBatchDelivery() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        List<List<String>> batches = new ArrayList<>();
+        List<String> single = new ArrayList<>();
+
+        Observable<String> observable = Observable.fromArray(1, 2, 3, 4, 5, 6)
+                .filter(i -> i % 2 == 0)
+                .map(i -> "N" + i)
+                .observeOn(new SingleThreadScheduler());
+
+        observable.subscribe(new BatchObserver<>() {
+            @Override
+            public void onNextBatch(List<String> items) {
+                batches.add(new ArrayList<>(items));
+            }
+
+            @Override
+            public void onNext(String item) {
+                fail("Элементы должны приходить пачкой");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка при пакетной доставке: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        });
+
+        observable.subscribe(new Observer<>() {
+            @Override
+            public void onNext(String item) {
+                single.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка при поэлементной доставке: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Оба подписчика должны получить onComplete");
+        assertEquals(List.of(List.of("N2", "N4", "N6")), batches, "Должна прийти одна пачка");
+        assertEquals(List.of("N2", "N4", "N6"), single, "Обычный подписчик должен получить элементы по одному");
+    }
+
+    // Проверяет observeOn на том же планировщике, что и subscribeOn
+    // Убеждается, что элемент доставляется на месте, без постановки в очередь планировщика
+    @Test
+    public void testObserveOnSameSchedulerRunsInline() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger received = new AtomicInteger();
+        AtomicBoolean deliveredInline = new AtomicBoolean(true);
+        SingleThreadScheduler scheduler = new SingleThreadScheduler();
+
+        Observable.<Integer>create(observer -> {
+                    for (int i = 1; i <= 3; i++) {
+                        observer.onNext(i);
+                        if (received.get() != i) {
+                            deliveredInline.set(false);
+                        }
+                    }
+                    observer.onComplete();
+                })
+                .subscribeOn(scheduler)
+                .observeOn(scheduler)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        assertTrue(scheduler.isCurrentThread(), "Доставка должна идти в потоке планировщика");
+                        received.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertEquals(3, received.get(), "Должно быть получено 3 элемента");
+        assertTrue(deliveredInline.get(), "Элементы должны доставляться до возврата из onNext источника");
+    }
+
+    // Проверяет observeOn на планировщике, который отклоняет задачи
+    // Убеждается, что подписчик получает RejectedExecutionException, а не зависает
+    @Test
+    public void testObserveOnRejectedScheduler() {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicInteger received = new AtomicInteger();
+        Scheduler rejecting = task -> {
+            throw new RejectedExecutionException("Пул занят");
+        };
+
+        Observable.fromArray(1, 2, 3)
+                .observeOn(rejecting)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        received.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        error.set(t);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        fail("Поток не должен завершиться успешно");
+                    }
+                });
+
+        assertTrue(error.get() instanceof RejectedExecutionException, "Отказ планировщика должен прийти в onError");
+        assertEquals(0, received.get(), "Элементы не должны быть доставлены");
+    }
+
+    // Проверяет исключение в подписчике после observeOn
+    // Убеждается, что поток завершается onError с этим исключением, а не обрывается молча
+    @Test
+    public void testObserveOnSubscriberFailure() throws InterruptedException {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch terminated = new CountDownLatch(1);
+
+        Observable.<Integer>create(observer -> {
+                    observer.onNext(1);
+                    observer.onNext(2);
+                    observer.onNext(3);
+                    observer.onComplete();
+                })
+                .observeOn(new SingleThreadScheduler())
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        if (item == 1) {
+                            throw new IllegalStateException("Сбой подписчика");
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        error.set(t);
+                        terminated.countDown();
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        terminated.countDown();
+                    }
+                });
+
+        assertTrue(terminated.await(1, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertNotNull(error.get(), "Исключение подписчика должно прийти в onError");
+        assertEquals("Сбой подписчика", error.get().getMessage(), "Должна прийти ошибка подписчика");
+    }
+
+    // 10. Тесты ограничения скорости
+
+    // Проверяет rateLimit с задержкой лишних элементов
+    // Убеждается, что сверх burst элементы выдаются не чаще заданной частоты и не теряются
+    @Test
+    public void testRateLimitBuffer() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Long> timestamps = new ArrayList<>();
+
+        Observable.fromArray(1, 2, 3, 4, 5, 6)
+                .rateLimit(50, 2, new SingleThreadScheduler())
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        timestamps.add(System.nanoTime());
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка в rateLimit: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertEquals(6, timestamps.size(), "Все элементы должны быть доставлены");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timestamps.get(5) - timestamps.get(0));
+        assertTrue(elapsedMillis >= 70, "4 элемента сверх burst должны занять не меньше ~80 мс, прошло " + elapsedMillis);
+    }
+
+    // Проверяет rateLimit с отбрасыванием
+    // Убеждается, что проходит только burst элементов из мгновенной пачки
+    @Test
+    public void testRateLimitDrop() {
+        List<Integer> received = new ArrayList<>();
+
+        Observable.fromArray(1, 2, 3, 4, 5)
+                .rateLimit(1, 2, new SingleThreadScheduler(), RateLimitOverflow.DROP)
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        received.add(item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка в rateLimit: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+
+        assertEquals(List.of(1, 2), received, "Должны пройти только первые burst элементов");
+    }
+
+    // 11. Тесты устранения повторов
+
+    // Проверяет distinctUntilChanged и distinct с ограниченным LRU
+    // Убеждается, что вытесненный ключ снова пропускается
+    @Test
+    public void testDistinctOperators() {
+        List<Integer> untilChanged = new ArrayList<>();
+        List<Integer> lru = new ArrayList<>();
+
+        Observable<Integer> observable = Observable.fromArray(1, 1, 2, 2, 1, 3, 1);
+
+        observable.distinctUntilChanged().subscribe(collectTo(untilChanged));
+        observable.distinct(i -> i, 2).subscribe(collectTo(lru));
+
+        assertEquals(List.of(1, 2, 1, 3, 1), untilChanged, "Должны отсекаться только соседние повторы");
+        assertEquals(List.of(1, 2, 3), lru, "Ключ 1 остается в LRU, так как к нему обращались недавно");
+    }
+
+    // Проверяет приближенный distinct на ротируемом фильтре Блума
+    // Убеждается, что повторы отсекаются, а доля ложных срабатываний близка к заданной
+    @Test
+    public void testDistinctBloom() {
+        List<Integer> received = new ArrayList<>();
+        Integer[] items = new Integer[20_000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = i / 2;
+        }
+
+        Observable.fromArray(items)
+                .distinct(i -> i, DistinctStrategy.bloom(5_000, 0.01))
+                .subscribe(collectTo(received));
+
+        assertTrue(received.size() <= 10_000, "Повторы должны отсекаться");
+        assertTrue(received.size() >= 9_800, "Ложных срабатываний должно быть около 1%, получено "
+                + (10_000 - received.size()));
+    }
+
+    // Проверяет приближенный distinct на ключах с одинаковым hashCode
+    // Убеждается, что фильтр различает их по 64-битному хешу, в том числе заданному вызывающим
+    @Test
+    public void testDistinctBloomCollidingHashCodes() {
+        // У Long со старшей половиной, равной младшей, hashCode всегда 0
+        Long[] items = new Long[5_000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = ((long) i << 32) | i;
+        }
+        List<Long> received = new ArrayList<>();
+        List<Long> receivedCustom = new ArrayList<>();
+
+        Observable.fromArray(items)
+                .distinct(i -> i, DistinctStrategy.bloom(5_000, 0.01))
+                .subscribe(collectTo(received));
+        Observable.fromArray(items)
+                .distinct(i -> i, DistinctStrategy.bloom(5_000, 0.01, key -> (Long) key * 0x9E3779B97F4A7C15L))
+                .subscribe(collectTo(receivedCustom));
+
+        assertTrue(received.size() >= 4_900, "Ключи с одинаковым hashCode не должны считаться повторами, получено "
+                + received.size());
+        assertTrue(receivedCustom.size() >= 4_900, "Пользовательский хеш должен различать ключи, получено "
+                + receivedCustom.size());
+    }
+
+    private static <T> Observer<T> collectTo(List<T> received) {
+        return new Observer<>() {
+            @Override
+            public void onNext(T item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        };
+    }
+
+    // 12. Тесты переноса контекста
+
+    // Проверяет перенос Context и зарегистрированного ThreadLocal через subscribeOn и observeOn
+    // Убеждается, что в рабочих потоках видны значения вызывающего потока
+    @Test
+    public void testContextPropagation() throws InterruptedException {
+        ThreadLocal<String> requestId = new ThreadLocal<>();
+        ContextPropagation.registerThreadLocal(requestId);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> seen = new CopyOnWriteArrayList<>();
+
+        Observable<Integer> observable = Observable.<Integer>create(observer -> {
+                    seen.add(Context.current().get("user") + "/" + requestId.get());
+                    observer.onNext(1);
+                    observer.onComplete();
+                })
+                .subscribeOn(new SingleThreadScheduler())
+                .observeOn(new SingleThreadScheduler());
+
+        requestId.set("req-1");
+        try (Context.Scope ignored = Context.empty().with("user", "alice").attach()) {
+            observable.subscribe(new Observer<>() {
+                @Override
+                public void onNext(Integer item) {
+                    seen.add(Context.current().get("user") + "/" + requestId.get());
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail("Неожиданная ошибка: " + t.getMessage());
+                }
+
+                @Override
+                public void onComplete() {
+                    latch.countDown();
+                }
+            });
+        } finally {
+            requestId.remove();
+        }
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertEquals(List.of("alice/req-1", "alice/req-1"), seen, "Контекст должен быть доступен в обоих потоках");
+        assertNull(Context.current().get("user"), "После закрытия Scope контекст должен быть восстановлен");
+    }
+
+    // Проверяет observeOn, когда в одной доставке оказываются элементы разных запросов
+    // Убеждается, что каждый элемент обрабатывается под контекстом, с которым был отправлен
+    @Test
+    public void testObserveOnContextPerItem() throws InterruptedException {
+        CountDownLatch secondQueued = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> seen = new CopyOnWriteArrayList<>();
+
+        Observable.<Integer>create(observer -> {
+                    try (Context.Scope ignored = Context.empty().with("user", "alice").attach()) {
+                        observer.onNext(1);
+                    }
+                    try (Context.Scope ignored = Context.empty().with("user", "bob").attach()) {
+                        observer.onNext(2);
+                    }
+                    secondQueued.countDown();
+                    observer.onComplete();
+                })
+                .observeOn(new SingleThreadScheduler())
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        if (item == 1) {
+                            // Второй элемент попадет в очередь, пока идет доставка первого
+                            awaitQuietly(secondQueued);
+                        }
+                        seen.add(item + ":" + Context.current().get("user"));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertEquals(List.of("1:alice", "2:bob"), seen, "Каждый элемент должен видеть свой контекст");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Проверяет выборочную трассировку
+    // Убеждается, что оба перехода элемента попадают в одну трассу
+    @Test
+    public void testTracingAcrossHops() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Long> traceIds = new CopyOnWriteArrayList<>();
+        Tracing.enable(1, (traceId, stage, fromThread, toThread, startNanos, endNanos) -> {
+            assertTrue(endNanos >= startNanos, "Время доставки не может быть раньше постановки в очередь");
+            traceIds.add(traceId);
+        });
+        try {
+            Observable.<Integer>create(observer -> {
+                        observer.onNext(1);
+                        observer.onComplete();
+                    })
+                    .observeOn(new SingleThreadScheduler())
+                    .observeOn(new SingleThreadScheduler())
+                    .subscribe(new Observer<>() {
+                        @Override
+                        public void onNext(Integer item) {
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            fail("Неожиданная ошибка: " + t.getMessage());
+                        }
+
+                        @Override
+                        public void onComplete() {
+                            latch.countDown();
+                        }
+                    });
+            assertTrue(latch.await(1, TimeUnit.SECONDS), "Поток должен завершиться");
+        } finally {
+            Tracing.disable();
+        }
+
+        assertEquals(2, traceIds.size(), "Должно быть записано 2 перехода");
+        assertEquals(traceIds.get(0), traceIds.get(1), "Переходы должны относиться к одной трассе");
+    }
+
+    // 13. Тесты сброса очереди observeOn на диск
+
+    // Проверяет observeOn с малым буфером в памяти и медленным потребителем
+    // Убеждается, что излишек уходит в файлы, порядок сохраняется, а прочитанные сегменты удаляются
+    @Test
+    public void testObserveOnSpillsToDisk(@TempDir Path directory) throws Exception {
+        int count = 5000;
+        CountDownLatch producerDone = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        AtomicInteger filesSeen = new AtomicInteger();
+
+        Observable.<Integer>create(observer -> {
+                    for (int i = 0; i < count; i++) {
+                        observer.onNext(i % 100 == 0 ? null : i);
+                    }
+                    observer.onComplete();
+                    producerDone.countDown();
+                })
+                .observeOn(new SingleThreadScheduler(),
+                        new SpillOptions<>(directory, 16, 4096, SpillCodec.<Integer>serializable()))
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        if (received.isEmpty()) {
+                            // Первый элемент ждет, пока источник закончит, чтобы очередь гарантированно переполнилась
+                            try {
+                                producerDone.await();
+                                try (Stream<Path> files = Files.list(directory)) {
+                                    filesSeen.set((int) files.count());
+                                }
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                        received.add(item == null ? -1 : item);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertTrue(filesSeen.get() > 1, "Излишек должен быть записан в несколько сегментов");
+        assertEquals(count, received.size(), "Должны быть получены все элементы");
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 100 == 0 ? -1 : i, received.get(i), "Порядок элементов должен сохраниться");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count(), "Прочитанные сегменты должны быть удалены");
+        }
+    }
+
+    // Проверяет observeOn с буфером в 2 элемента, когда производитель и потребитель работают одновременно
+    // Убеждается, что при постоянном переключении между памятью и диском порядок не нарушается
+    @Test
+    public void testObserveOnSpillKeepsOrderUnderContention(@TempDir Path directory) throws Exception {
+        int count = 200_000;
+        SpillCodec<Integer> codec = new SpillCodec<>() {
+            @Override
+            public byte[] encode(Integer item) {
+                int v = item;
+                return new byte[]{(byte) (v >>> 24), (byte) (v >>> 16), (byte) (v >>> 8), (byte) v};
+            }
+
+            @Override
+            public Integer decode(byte[] b) {
+                return (b[0] & 0xFF) << 24 | (b[1] & 0xFF) << 16 | (b[2] & 0xFF) << 8 | (b[3] & 0xFF);
+            }
+        };
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger expected = new AtomicInteger();
+        AtomicInteger misordered = new AtomicInteger();
+
+        Observable.<Integer>create(observer -> {
+                    for (int i = 0; i < count; i++) {
+                        observer.onNext(i);
+                    }
+                    observer.onComplete();
+                })
+                .subscribeOn(new SingleThreadScheduler())
+                .observeOn(new SingleThreadScheduler(), new SpillOptions<>(directory, 2, 64 * 1024, codec))
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        if (item != expected.getAndIncrement()) {
+                            misordered.incrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertEquals(count, expected.get(), "Должны быть получены все элементы");
+        assertEquals(0, misordered.get(), "Порядок элементов должен сохраниться");
+    }
+
+    // Проверяет длинный поток пачками через observeOn со сбросом на диск
+    // Убеждается, что прочитанные сегменты переиспользуются, а не создаются заново для каждой пачки
+    @Test
+    public void testObserveOnSpillReusesSegments(@TempDir Path directory) throws Exception {
+        int bursts = 40;
+        int burst = 100;
+        Semaphore written = new Semaphore(0);
+        Semaphore drained = new Semaphore(0);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger received = new AtomicInteger();
+        Set<Path> files = ConcurrentHashMap.newKeySet();
+
+        Observable.<Integer>create(observer -> {
+                    for (int b = 0; b < bursts; b++) {
+                        for (int i = 0; i < burst; i++) {
+                            observer.onNext(b * burst + i);
+                        }
+                        written.release();
+                        drained.acquireUninterruptibly();
+                    }
+                    observer.onComplete();
+                })
+                .observeOn(new SingleThreadScheduler(),
+                        new SpillOptions<>(directory, 1, 1024, SpillCodec.<Integer>serializable()))
+                .subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(Integer item) {
+                        if (item % burst == 0) {
+                            // Пачка целиком записана: все ее сегменты уже в каталоге
+                            written.acquireUninterruptibly();
+                            try (Stream<Path> listed = Files.list(directory)) {
+                                listed.forEach(files::add);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                        assertEquals(received.getAndIncrement(), item, "Порядок элементов должен сохраниться");
+                        if (item % burst == burst - 1) {
+                            drained.release();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail("Неожиданная ошибка: " + t.getMessage());
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        latch.countDown();
+                    }
+                });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS), "Поток должен завершиться");
+        assertEquals(bursts * burst, received.get(), "Должны быть получены все элементы");
+        assertTrue(files.size() > 1, "Пачки должны уходить на диск");
+        assertTrue(files.size() < 40, "Сегменты должны переиспользоваться, создано файлов: " + files.size());
+    }
+
+    // 14. Тесты неблокирующих сокетов
+
+    // Проверяет эхо-сервер на fromServerSocket, fromChannel и ChannelObserver через loopback
+    // Убеждается, что несколько клиентов получают обратно ровно отправленные байты
+    @Test
+    public void testSelectorEchoServer() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        BufferPool pool = new BufferPool(4096, 64);
+        Observable.fromServerSocket(port).subscribe(new Observer<>() {
+            @Override
+            public void onNext(SocketChannel channel) {
+                Observable.fromChannel(channel, pool).subscribe(new ChannelObserver(channel, pool));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        int clients = 4;
+        byte[] payload = new byte[200_000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i * 31);
+        }
+        List<Thread> threads = new ArrayList<>();
+        List<byte[]> echoed = new CopyOnWriteArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Thread thread = new Thread(() -> {
+                try (Socket socket = new Socket("127.0.0.1", port)) {
+                    socket.setSoTimeout(5000);
+                    // Пишем из отдельного потока, иначе клиент и сервер могут упереться в заполненные буферы
+                    Thread writer = new Thread(() -> {
+                        try {
+                            socket.getOutputStream().write(payload);
+                            socket.shutdownOutput();
+                        } catch (IOException ignored) {
+                        }
+                    });
+                    writer.start();
+                    echoed.add(socket.getInputStream().readAllBytes());
+                    writer.join();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+
+        assertEquals(clients, echoed.size(), "Все клиенты должны получить ответ");
+        for (byte[] bytes : echoed) {
+            assertArrayEquals(payload, bytes, "Эхо должно совпадать с отправленными данными");
+        }
+    }
+
+    // Проверяет исключение в подписчике fromChannel
+    // Убеждается, что подписчик получает onError, канал закрывается, а цикл Selector продолжает работать
+    @Test
+    public void testChannelSubscriberFailureClosesChannel() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+        Observable.fromServerSocket(port).subscribe(new Observer<>() {
+            @Override
+            public void onNext(SocketChannel channel) {
+                Observable.fromChannel(channel).subscribe(new Observer<>() {
+                    @Override
+                    public void onNext(ByteBuffer buffer) {
+                        throw new IllegalStateException("Сбой обработчика");
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        error.set(t);
+                        failed.countDown();
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        fail("Чтение должно завершиться ошибкой");
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try (Socket socket = new Socket("127.0.0.1", port)) {
+                socket.setSoTimeout(2000);
+                socket.getOutputStream().write(1);
+                assertEquals(-1, socket.getInputStream().read(), "Сервер должен закрыть соединение");
+            }
+        }
+
+        assertTrue(failed.await(1, TimeUnit.SECONDS), "Подписчик должен получить onError");
+        assertEquals("Сбой обработчика", error.get().getMessage(), "Должна прийти ошибка подписчика");
+    }
+
+    // Проверяет отписку от fromServerSocket без новых подключений
+    // Убеждается, что сервер закрывается и порт снова можно занять
+    @Test
+    public void testServerSocketReleasesPortOnDispose() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        DisposableObserver<SocketChannel> observer = new DisposableObserver<>() {
+            @Override
+            public void onNext(SocketChannel channel) {
+            }
+
+            @Override
+            protected void handleError(Throwable t) {
+                fail("Неожиданная ошибка: " + t.getMessage());
+            }
+        };
+        Observable.fromServerSocket(port).subscribe(observer);
+        observer.dispose();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        for (;;) {
+            try (ServerSocket rebound = new ServerSocket(port)) {
+                assertEquals(port, rebound.getLocalPort(), "Порт должен освободиться после отписки");
+                return;
+            } catch (BindException e) {
+                if (System.nanoTime() - deadline > 0) {
+                    fail("Порт не освобожден после отписки: " + e.getMessage());
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    // 15. Тесты совместимости с java.util.concurrent.Flow
+
+    // Проверяет fromPublisher на издателе, который отдает элементы только в пределах спроса
+    // Убеждается, что спрос запрашивается пачками и никогда не превышает prefetch
+    @Test
+    public void testFromPublisherBatchesDemand() {
+        int count = 100;
+        List<Long> requests = new ArrayList<>();
+        AtomicLong outstanding = new AtomicLong();
+        AtomicLong maxOutstanding = new AtomicLong();
+        Flow.Publisher<Integer> publisher = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            private int next;
+            private boolean emitting;
+
+            @Override
+            public void request(long n) {
+                requests.add(n);
+                maxOutstanding.accumulateAndGet(outstanding.addAndGet(n), Math::max);
+                if (emitting) {
+                    return;
+                }
+                emitting = true;
+                while (outstanding.get() > 0 && next < count) {
+                    outstanding.decrementAndGet();
+                    subscriber.onNext(next++);
+                }
+                emitting = false;
+                if (next == count) {
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        List<Integer> received = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+
+        Observable.fromPublisher(publisher, 16).subscribe(new Observer<>() {
+            @Override
+            public void onNext(Integer item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+
+        assertTrue(completed.get(), "Поток должен завершиться");
+        assertEquals(count, received.size(), "Должны быть получены все элементы");
+        assertEquals(16L, requests.get(0), "Первый запрос должен быть равен prefetch");
+        assertTrue(requests.subList(1, requests.size()).stream().allMatch(n -> n == 12L),
+                "Спрос должен пополняться пачками по три четверти prefetch");
+        assertTrue(maxOutstanding.get() <= 16, "Невыполненный спрос не должен превышать prefetch");
+    }
+
+    // Проверяет toPublisher со стратегиями BUFFER и DROP
+    // Убеждается, что элементы отдаются только по запросу, а при DROP лишние отбрасываются
+    @Test
+    public void testToPublisherRespectsDemand() {
+        Integer[] items = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        List<Integer> buffered = new ArrayList<>();
+        AtomicBoolean bufferedCompleted = new AtomicBoolean();
+        Observable.fromArray(items).toPublisher(BackpressureStrategy.BUFFER).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription = s;
+                s.request(2);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                buffered.add(item);
+                if (buffered.size() % 2 == 0) {
+                    subscription.request(2);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                bufferedCompleted.set(true);
+            }
+        });
+        assertEquals(Arrays.asList(items), buffered, "BUFFER должен доставить все элементы по порядку");
+        assertTrue(bufferedCompleted.get(), "Поток должен завершиться");
+
+        List<Integer> dropped = new ArrayList<>();
+        AtomicBoolean droppedCompleted = new AtomicBoolean();
+        Observable.fromArray(items).toPublisher(BackpressureStrategy.DROP).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                s.request(3);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                dropped.add(item);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail("Неожиданная ошибка: " + t.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                droppedCompleted.set(true);
+            }
+        });
+        assertEquals(List.of(1, 2, 3), dropped, "DROP должен отдать только запрошенные элементы");
+        assertTrue(droppedCompleted.get(), "Завершение доставляется и без спроса");
+    }
+}
@@ -0,0 +1,166 @@
+package ru.skillfactory.rxjava.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchedulerTest {
+
+    // 1. Тесты ElasticIOScheduler
+
+    // Проверяет рост пула до maxSize и выполнение задачи вызывающим потоком при переполнении
+    // Убеждается, что простаивающие потоки сверх core освобождаются после keepAlive
+    @Test
+    public void testElasticSchedulerCallerRuns() throws InterruptedException {
+        ElasticIOScheduler scheduler = new ElasticIOScheduler(1, 2, 50, TimeUnit.MILLISECONDS,
+                ElasticIOScheduler.OverflowPolicy.CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+
+        for (int i = 0; i < 2; i++) {
+            scheduler.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS), "Обе задачи должны быть запущены");
+        assertEquals(2, scheduler.getPoolSize(), "Пул должен вырасти до maxSize");
+
+        String[] executedBy = new String[1];
+        scheduler.execute(() -> executedBy[0] = Thread.currentThread().getName());
+        assertEquals(Thread.currentThread().getName(), executedBy[0],
+                "При переполнении задачу должен выполнить вызывающий поток");
+
+        release.countDown();
+        Thread.sleep(300);
+        assertEquals(1, scheduler.getPoolSize(), "Потоки сверх core должны освободиться после простоя");
+    }
+
+    // Проверяет политики BOUNDED_QUEUE и FAIL_FAST
+    // Убеждается, что задачи сверх лимита отклоняются
+    @Test
+    public void testElasticSchedulerRejection() throws InterruptedException {
+        ElasticIOScheduler queued = new ElasticIOScheduler(1, 1, 1, TimeUnit.SECONDS,
+                ElasticIOScheduler.OverflowPolicy.BOUNDED_QUEUE, 1);
+        ElasticIOScheduler failFast = new ElasticIOScheduler(1, 1, 1, TimeUnit.SECONDS,
+                ElasticIOScheduler.OverflowPolicy.FAIL_FAST);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Runnable blocking = () -> {
+            started.countDown();
+            await(release);
+        };
+
+        queued.execute(blocking);
+        failFast.execute(blocking);
+        assertTrue(started.await(1, TimeUnit.SECONDS), "Задачи должны быть запущены");
+
+        queued.execute(() -> { });
+        assertEquals(1, queued.getQueueSize(), "Задача должна ждать в очереди");
+        assertThrows(RejectedExecutionException.class, () -> queued.execute(() -> { }),
+                "При заполненной очереди задача должна быть отклонена");
+        assertThrows(RejectedExecutionException.class, () -> failFast.execute(() -> { }),
+                "При занятом пуле задача должна быть отклонена сразу");
+
+        release.countDown();
+    }
+
+    // Проверяет BOUNDED_QUEUE с запасом потоков сверх core
+    // Убеждается, что пул сначала растет до maxSize и только потом ставит задачи в очередь
+    @Test
+    public void testElasticSchedulerGrowsBeforeQueueing() throws InterruptedException {
+        ElasticIOScheduler scheduler = new ElasticIOScheduler(1, 2, 1, TimeUnit.SECONDS,
+                ElasticIOScheduler.OverflowPolicy.BOUNDED_QUEUE, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Runnable blocking = () -> {
+            started.countDown();
+            await(release);
+        };
+
+        scheduler.execute(blocking);
+        scheduler.execute(blocking);
+        assertTrue(started.await(1, TimeUnit.SECONDS), "Вторая задача должна получить свой поток, а не ждать в очереди");
+        assertEquals(2, scheduler.getPoolSize(), "Пул должен вырасти до maxSize");
+
+        scheduler.execute(() -> { });
+        assertEquals(1, scheduler.getQueueSize(), "При занятых потоках задача должна ждать в очереди");
+        assertThrows(RejectedExecutionException.class, () -> scheduler.execute(() -> { }),
+                "При заполненной очереди задача должна быть отклонена");
+
+        release.countDown();
+    }
+
+    // 2. Тесты Scheduler.from
+
+    // Проверяет адаптер для внешнего Executor
+    // Убеждается, что isCurrentThread истинен только внутри задач этого планировщика
+    @Test
+    public void testFromExecutor() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Scheduler scheduler = Scheduler.from(executor);
+        Scheduler other = Scheduler.from(executor);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicBoolean insideOwn = new AtomicBoolean();
+        AtomicBoolean insideOther = new AtomicBoolean(true);
+
+        scheduler.execute(() -> {
+            insideOwn.set(scheduler.isCurrentThread());
+            insideOther.set(other.isCurrentThread());
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS), "Задача должна выполниться");
+        assertTrue(insideOwn.get(), "Внутри задачи поток должен принадлежать планировщику");
+        assertFalse(insideOther.get(), "Поток не должен принадлежать другому планировщику");
+        assertFalse(scheduler.isCurrentThread(), "Вызывающий поток не принадлежит планировщику");
+        executor.shutdown();
+    }
+
+    // 3. Тесты DeadlineScheduler
+
+    // Проверяет порядок выполнения по сроку
+    // Убеждается, что срочная задача обгоняет ранее поставленные фоновые
+    @Test
+    public void testDeadlineSchedulerRunsEarliestDeadlineFirst() throws InterruptedException {
+        DeadlineScheduler scheduler = new DeadlineScheduler(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        scheduler.execute(() -> await(release));
+        scheduler.withPriority(TaskPriority.BULK).execute(() -> {
+            order.add("bulk");
+            finished.countDown();
+        });
+        scheduler.withPriority(TaskPriority.NORMAL).execute(() -> {
+            order.add("normal");
+            finished.countDown();
+        });
+        scheduler.withPriority(TaskPriority.CRITICAL).execute(() -> {
+            order.add("critical");
+            finished.countDown();
+        });
+        release.countDown();
+
+        assertTrue(finished.await(1, TimeUnit.SECONDS), "Все задачи должны выполниться");
+        assertEquals(List.of("critical", "normal", "bulk"), order, "Задачи должны выполняться по сроку");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}